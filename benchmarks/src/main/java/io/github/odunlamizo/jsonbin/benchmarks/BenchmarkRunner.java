@@ -0,0 +1,42 @@
+package io.github.odunlamizo.jsonbin.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link CodecBenchmark} and {@link CompressionBenchmark} once, and {@link ClientBenchmark} at
+ * each thread count given as an argument (1, 4 and 16 by default), all with the GC profiler so
+ * allocation per operation ({@code gc.alloc.rate.norm}) is reported next to throughput.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar \
+ *     io.github.odunlamizo.jsonbin.benchmarks.BenchmarkRunner 1 4 16
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException {
+        String[] threadCounts = args.length == 0 ? new String[] {"1", "4", "16"} : args;
+
+        run(new OptionsBuilder().include(CodecBenchmark.class.getSimpleName()).build());
+        run(new OptionsBuilder().include(CompressionBenchmark.class.getSimpleName()).build());
+
+        for (String threads : threadCounts) {
+            run(
+                    new OptionsBuilder()
+                            .include(ClientBenchmark.class.getSimpleName())
+                            .threads(Integer.parseInt(threads))
+                            .build());
+        }
+    }
+
+    private static void run(Options options) throws RunnerException {
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build())
+                .run();
+    }
+}
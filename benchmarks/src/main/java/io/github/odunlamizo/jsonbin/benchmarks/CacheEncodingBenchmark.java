@@ -0,0 +1,76 @@
+package io.github.odunlamizo.jsonbin.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.odunlamizo.jsonbin.cache.CacheCodec;
+import io.github.odunlamizo.jsonbin.cache.CacheEncoding;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.UserList;
+import io.github.odunlamizo.jsonbin.util.JsonUtil;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the heap a cached {@code Bin<UserList>} body takes in each {@link CacheEncoding}, with
+ * and without compression, against the cost of turning it back into a {@code Bin} on a cache hit.
+ *
+ * <p>The {@code entryBytes} line printed at setup is the size of the stored body, which is what the
+ * cache keeps per entry besides its key. {@code decode} is a cache hit: the stored body is bound
+ * directly by a reader of its format. {@code encode} is the matching cost on a cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheEncodingBenchmark {
+
+    @Param({"10", "10000"})
+    int users;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    CacheEncoding encoding;
+
+    @Param({"false", "true"})
+    boolean compress;
+
+    private CacheCodec codec;
+
+    private ObjectReader reader;
+
+    private byte[] json;
+
+    private byte[] stored;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonUtil.Registry registry = JsonUtil.registry();
+        codec = CacheCodec.of(encoding, compress);
+        reader = registry.withFactory(codec.factory()).binReader(UserList.class);
+
+        json = registry.writer(Bin.class).writeValueAsBytes(Payloads.bin(users));
+        stored = codec.encode(json);
+        System.out.printf("entryBytes: %d (JSON: %d)%n", stored.length, json.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(json);
+    }
+
+    @Benchmark
+    public Bin<UserList> decode() throws IOException {
+        return codec.read(reader, stored);
+    }
+}
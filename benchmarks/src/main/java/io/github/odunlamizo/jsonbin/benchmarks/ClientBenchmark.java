@@ -0,0 +1,129 @@
+package io.github.odunlamizo.jsonbin.benchmarks;
+
+import io.github.odunlamizo.jsonbin.core.AbstractJsonBin;
+import io.github.odunlamizo.jsonbin.httpclient.JsonBinHttpClient;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import io.github.odunlamizo.jsonbin.model.UserList;
+import io.github.odunlamizo.jsonbin.okhttp.JsonBinOkHttp;
+import io.github.odunlamizo.jsonbin.util.JsonUtil;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full client round trips against a local {@link MockWebServer}, once per transport binding.
+ *
+ * <p>One client is shared by all benchmark threads, as in an application. Run it at increasing
+ * thread counts through {@link BenchmarkRunner}, or with JMH's {@code -t} option.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientBenchmark {
+
+    @Param({"okhttp", "httpclient"})
+    String transport;
+
+    @Param({"10", "1000"})
+    int users;
+
+    private MockWebServer server;
+
+    private AbstractJsonBin jsonBin;
+
+    private UserList record;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String bin = JsonUtil.toJson(Payloads.bin(users));
+        String collection = Payloads.collection(users);
+
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(
+                new okhttp3.mockwebserver.Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request) {
+                        String body = request.getPath().startsWith("/c/") ? collection : bin;
+                        return new MockResponse()
+                                .setResponseCode(200)
+                                .addHeader("Content-Type", "application/json")
+                                .setBody(body);
+                    }
+                });
+        server.start();
+
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        jsonBin = newJsonBin(baseUrl);
+        record = Payloads.userList(users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Bin<UserList> readBin() {
+        return jsonBin.readBin("bench-bin", UserList.class);
+    }
+
+    @Benchmark
+    public Bin<UserList> updateBin() {
+        return jsonBin.updateBin(record, "bench-bin");
+    }
+
+    @Benchmark
+    public List<BinHandle> readCollection() {
+        return jsonBin.readCollection("bench-collection");
+    }
+
+    private AbstractJsonBin newJsonBin(String baseUrl) {
+        switch (transport) {
+            case "okhttp":
+                // Lift OkHttp's per-host limits so the thread count is the only cap
+                Dispatcher dispatcher = new Dispatcher();
+                dispatcher.setMaxRequestsPerHost(256);
+                OkHttpClient client =
+                        new OkHttpClient.Builder()
+                                .dispatcher(dispatcher)
+                                .connectionPool(new ConnectionPool(64, 5, TimeUnit.MINUTES))
+                                .build();
+                return new JsonBinOkHttp.Builder()
+                        .withMasterKey("bench-key")
+                        .withBaseUrl(baseUrl)
+                        .withOkHttpClient(client)
+                        .build();
+            case "httpclient":
+                return new JsonBinHttpClient.Builder()
+                        .withMasterKey("bench-key")
+                        .withBaseUrl(baseUrl)
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown transport: " + transport);
+        }
+    }
+}
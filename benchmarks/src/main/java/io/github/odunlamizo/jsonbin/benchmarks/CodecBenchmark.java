@@ -0,0 +1,101 @@
+package io.github.odunlamizo.jsonbin.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.LazyBin;
+import io.github.odunlamizo.jsonbin.model.UserList;
+import io.github.odunlamizo.jsonbin.util.JsonUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes and decodes {@code Bin<UserList>} payloads of 10 (small), 10,000 (medium) and 100,000
+ * (multi-MB) users.
+ *
+ * <p>{@code decodeTypeReference} is the path every request took before readers were registered per
+ * type, and is kept as a baseline. {@code decodeRecord} reads the same record from a body fetched
+ * with {@code X-Bin-Meta: false}, without the {@code Bin} wrapper and its metadata. {@code
+ * decodeLazyMetadata} reads a {@code LazyBin} and only looks at its metadata, as callers of {@code
+ * createBin} do, so the record is buffered but never bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"10", "10000", "100000"})
+    int users;
+
+    @Param({"false", "true"})
+    boolean blackbird;
+
+    private Bin<UserList> bin;
+
+    private byte[] json;
+
+    private byte[] recordJson;
+
+    private ObjectReader reader;
+
+    private ObjectReader recordReader;
+
+    private ObjectReader lazyReader;
+
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonUtil.Registry registry = blackbird ? JsonUtil.blackbirdRegistry() : JsonUtil.registry();
+        reader = registry.binReader(UserList.class);
+        recordReader = registry.reader(UserList.class);
+        lazyReader = registry.lazyBinReader(UserList.class);
+        writer = registry.writer(Bin.class);
+
+        bin = Payloads.bin(users);
+        json = writer.writeValueAsBytes(bin);
+        recordJson = registry.writer(UserList.class).writeValueAsBytes(bin.getRecord());
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), bin);
+    }
+
+    @Benchmark
+    public Bin<UserList> decode() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public UserList decodeRecord() throws IOException {
+        return recordReader.readValue(recordJson);
+    }
+
+    @Benchmark
+    public String decodeLazyMetadata() throws IOException {
+        LazyBin<UserList> lazyBin = lazyReader.readValue(json);
+        return lazyBin.getMetadata().getId();
+    }
+
+    @Benchmark
+    public Bin<UserList> decodeTypeReference() throws IOException {
+        return JsonUtil.toValue(json, new TypeReference<Bin<UserList>>() {});
+    }
+}
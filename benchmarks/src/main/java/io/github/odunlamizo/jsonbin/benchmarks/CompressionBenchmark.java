@@ -0,0 +1,172 @@
+package io.github.odunlamizo.jsonbin.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.odunlamizo.jsonbin.JsonBin;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.UserList;
+import io.github.odunlamizo.jsonbin.okhttp.JsonBinOkHttp;
+import io.github.odunlamizo.jsonbin.util.JsonUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bandwidth and latency trade-off of gzip for each payload size.
+ *
+ * <p>{@code encode} is the CPU cost of serializing, and compressing when enabled, with no network.
+ * {@code updateBin} and {@code readBin} are round trips against a MockWebServer throttled to {@link
+ * #BYTES_PER_SECOND} in both directions, so saved bytes turn into saved time. The bytes each
+ * variant puts on the wire are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    /**
+     * 1 MB/s, i.e. 8 Mbit/s. MockWebServer only pauses after a full period's worth of bytes in one
+     * transfer, and streamed uploads arrive in chunks of at most 8 KiB, so the period must be
+     * shorter than a chunk for uploads to be throttled too.
+     */
+    static final long BYTES_PER_SECOND = 1_000_000;
+
+    private static final long THROTTLE_PERIOD_MILLIS = 1;
+
+    @Param({"10", "1000", "10000", "100000"})
+    int users;
+
+    @Param({"false", "true"})
+    boolean gzip;
+
+    private MockWebServer server;
+
+    private JsonBin jsonBin;
+
+    private ObjectWriter writer;
+
+    private UserList record;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        record = Payloads.userList(users);
+        writer = JsonUtil.registry().writer(UserList.class);
+
+        Bin<UserList> bin = Payloads.bin(users);
+        byte[] plain = JsonUtil.registry().writer(Bin.class).writeValueAsBytes(bin);
+        byte[] compressed = gzip(plain);
+        System.out.printf(
+                "%n%d users: %d bytes plain, %d bytes gzip (%.1f%%)%n",
+                users, plain.length, compressed.length, 100.0 * compressed.length / plain.length);
+
+        byte[] metadata = "{\"metadata\":{\"id\":\"bench-bin\"}}".getBytes();
+        byte[] body = gzip ? compressed : plain;
+
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request) {
+                        if (!"GET".equals(request.getMethod())) {
+                            return throttled(
+                                    new MockResponse().setBody(new Buffer().write(metadata)));
+                        }
+
+                        MockResponse response =
+                                new MockResponse().setBody(new Buffer().write(body));
+                        if (gzip) {
+                            response.addHeader("Content-Encoding", "gzip");
+                        }
+                        return throttled(response);
+                    }
+
+                    /**
+                     * Throttles request bodies too, which MockWebServer reads using this response.
+                     */
+                    @Override
+                    public MockResponse peek() {
+                        return throttled(new MockResponse());
+                    }
+                });
+        server.start();
+
+        // Without TCP_NODELAY the small gzip trailer waits on the server's delayed ACK
+        OkHttpClient client =
+                new OkHttpClient.Builder().socketFactory(new NoDelaySocketFactory()).build();
+
+        JsonBinOkHttp.Builder builder =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("bench-key")
+                        .withOkHttpClient(client)
+                        .withBaseUrl(server.url("").toString().replaceAll("/$", ""));
+        if (gzip) {
+            builder.withRequestCompression(1024);
+        }
+        jsonBin = builder.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        if (gzip) {
+            try (GZIPOutputStream out =
+                    new GZIPOutputStream(OutputStream.nullOutputStream(), 8192)) {
+                writer.writeValue(out, record);
+            }
+        } else {
+            writer.writeValue(OutputStream.nullOutputStream(), record);
+        }
+    }
+
+    @Benchmark
+    public Bin<UserList> updateBin() {
+        return jsonBin.updateBin(record, "bench-bin");
+    }
+
+    @Benchmark
+    public Bin<UserList> readBin() {
+        return jsonBin.readBin("bench-bin", UserList.class);
+    }
+
+    private static MockResponse throttled(MockResponse response) {
+        return response.throttleBody(
+                BYTES_PER_SECOND * THROTTLE_PERIOD_MILLIS / 1000,
+                THROTTLE_PERIOD_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static byte[] gzip(byte[] value) throws IOException {
+        Buffer buffer = new Buffer();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer.outputStream())) {
+            out.write(value);
+        }
+        return buffer.readByteArray();
+    }
+}
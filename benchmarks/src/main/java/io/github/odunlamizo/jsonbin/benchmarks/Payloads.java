@@ -0,0 +1,53 @@
+package io.github.odunlamizo.jsonbin.benchmarks;
+
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.Metadata;
+import io.github.odunlamizo.jsonbin.model.User;
+import io.github.odunlamizo.jsonbin.model.UserList;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Synthetic {@link UserList} payloads; 100,000 users serialize to roughly 3.5 MB. */
+final class Payloads {
+
+    private Payloads() {}
+
+    static UserList userList(int users) {
+        List<User> list = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setName("User " + i);
+            user.setAge(18 + i % 60);
+            list.add(user);
+        }
+
+        UserList userList = new UserList();
+        userList.setUsers(list);
+        return userList;
+    }
+
+    static Bin<UserList> bin(int users) {
+        Metadata metadata = new Metadata();
+        metadata.setId("bench-bin");
+        metadata.setName("Benchmark Bin");
+        metadata.set_private(true);
+
+        Bin<UserList> bin = new Bin<>();
+        bin.setRecord(userList(users));
+        bin.setMetadata(metadata);
+        return bin;
+    }
+
+    static String collection(int bins) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < bins; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"private\":true,\"snippetMeta\":{},\"record\":\"bin-")
+                    .append(i)
+                    .append("\",\"createdAt\":\"2024-01-31T06:27:31.021Z\"}");
+        }
+        return json.append(']').toString();
+    }
+}
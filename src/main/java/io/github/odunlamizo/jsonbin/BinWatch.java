@@ -0,0 +1,15 @@
+package io.github.odunlamizo.jsonbin;
+
+/** A running {@linkplain JsonBin#watch watch} of a bin, which stops when closed. */
+public interface BinWatch extends AutoCloseable {
+
+    /** Returns the identifier of the watched bin. */
+    String getBinId();
+
+    /**
+     * Stops the watch. The listener is not called after this returns, unless a call is already
+     * under way. Closing an already closed watch has no effect.
+     */
+    @Override
+    void close();
+}
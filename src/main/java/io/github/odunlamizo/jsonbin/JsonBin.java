@@ -2,18 +2,36 @@ package io.github.odunlamizo.jsonbin;
 
 import io.github.odunlamizo.jsonbin.model.Bin;
 import io.github.odunlamizo.jsonbin.model.BinHandle;
+import io.github.odunlamizo.jsonbin.model.CollectionRecord;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.NonNull;
 
 /** JSONBin.io Java SDK */
 public interface JsonBin {
 
+    /** HTTP header carrying the account's master key. */
+    String HEADER_MASTER_KEY = "X-Master-Key";
+
+    /** HTTP header carrying an access key; takes precedence over the master key when set. */
+    String HEADER_ACCESS_KEY = "X-Access-Key";
+
     /** HTTP header used to set a human‑readable name for a created bin. */
     String HEADER_BIN_NAME = "X-Bin-Name";
 
     /** HTTP header used to control the privacy of a bin (true = private, false = public). */
     String HEADER_BIN_PRIVATE = "X-Bin-Private";
 
+    /** HTTP header that, set to {@code false}, returns a bin's record without its metadata. */
+    String HEADER_BIN_META = "X-Bin-Meta";
+
+    /** HTTP header asking the server to return only the parts of a record a JSONPath selects. */
+    String HEADER_JSON_PATH = "X-JSON-Path";
+
     /** HTTP header specifying the identifier of an existing collection to attach the bin to. */
     String HEADER_COLLECTION_ID = "X-Collection-Id";
 
@@ -33,6 +51,93 @@ public interface JsonBin {
      */
     <T> Bin<T> readBin(@NonNull String binId, @NonNull Class<T> cls);
 
+    /**
+     * Reads a specific version of a bin.
+     *
+     * <p>Unlike the latest record, a past version never changes, so implementations may cache it
+     * indefinitely.
+     *
+     * @param binId the unique identifier of the bin to retrieve; must not be {@code null}
+     * @param version the version number to read; must not be negative
+     * @param cls the class of the expected record type {@code T} used for deserialization; must not
+     *     be {@code null}
+     * @return a {@link Bin} object containing the deserialized data of that version
+     */
+    <T> Bin<T> readBin(@NonNull String binId, int version, @NonNull Class<T> cls);
+
+    /**
+     * Reads the record of a bin, without its metadata.
+     *
+     * <p>The server is asked to leave the metadata out, so the response is the bare record, which
+     * is deserialized directly into {@code T}. Prefer this over {@link #readBin(String, Class)}
+     * when the metadata is not needed.
+     *
+     * @param binId the unique identifier of the bin to retrieve; must not be {@code null}
+     * @param cls the class of the expected record type {@code T}; must not be {@code null}
+     * @return the deserialized record
+     */
+    <T> T readRecord(@NonNull String binId, @NonNull Class<T> cls);
+
+    /**
+     * Watches a bin for changes, calling {@code listener} with its contents whenever they change.
+     *
+     * <p>Every watched bin of this client is polled from one shared background thread, every watch
+     * interval with some jitter, so that the polls of many bins are spread out rather than sent in
+     * lockstep; the bins that are due at the same time are polled together, once however many
+     * watches they have. A poll hashes the raw response and only deserializes it when the hash
+     * differs from the last one a listener saw, so polling an unchanged bin costs no Jackson
+     * binding. The listener is first called with the bin's current contents, then once per change,
+     * never concurrently for the same watch. Polls bypass the read cache. Failed polls and
+     * exceptions thrown by the listener are ignored, and the next poll is tried as usual. A
+     * response that cannot be deserialized is not counted as seen, so it is tried again on the next
+     * poll.
+     *
+     * @param binId the unique identifier of the bin to watch; must not be {@code null}
+     * @param cls the class of the expected record type {@code T}; must not be {@code null}
+     * @param listener called with the bin whenever it changes; must not be {@code null}
+     * @return a handle that stops the watch when closed
+     */
+    <T> BinWatch watch(
+            @NonNull String binId, @NonNull Class<T> cls, @NonNull Consumer<Bin<T>> listener);
+
+    /**
+     * Reads the parts of a bin's record selected by a JSONPath expression.
+     *
+     * <p>The expression is evaluated by JSONBin.io, which returns only the selected nodes instead
+     * of the whole record, so large records are neither downloaded nor deserialized in full.
+     *
+     * @param binId the unique identifier of the bin to retrieve; must not be {@code null}
+     * @param jsonPath the JSONPath expression, such as {@code $.users[?(@.id == 42)]}; must not be
+     *     {@code null}
+     * @param cls the class of each selected node; must not be {@code null}
+     * @return a {@link Bin} whose record holds the selected nodes, in document order
+     */
+    <T> Bin<List<T>> readBin(
+            @NonNull String binId, @NonNull String jsonPath, @NonNull Class<T> cls);
+
+    /**
+     * Reads a single node of a bin's record, evaluating a JSON Pointer on the client.
+     *
+     * <p>Unlike {@link #readBin(String, String, Class)}, this works wherever the bin's full body is
+     * available, including a cached one. The body is streamed and only the node at {@code
+     * jsonPointer} is deserialized; everything else is skipped without being built.
+     *
+     * @param binId the unique identifier of the bin to read; must not be {@code null}
+     * @param jsonPointer an RFC 6901 JSON Pointer relative to the record, such as {@code /users/3};
+     *     the empty pointer selects the whole record; must not be {@code null}
+     * @param cls the class of the selected node; must not be {@code null}
+     * @return the selected node, or {@code null} if the record has no node at {@code jsonPointer}
+     */
+    <T> T readBinAt(@NonNull String binId, @NonNull String jsonPointer, @NonNull Class<T> cls);
+
+    /**
+     * Returns the number of versions of a bin.
+     *
+     * @param binId the unique identifier of the bin; must not be {@code null}
+     * @return the bin's version count
+     */
+    int readBinVersionCount(@NonNull String binId);
+
     /**
      * Creates a new bin with the provided record.
      *
@@ -63,6 +168,49 @@ public interface JsonBin {
      */
     <T> Bin<T> updateBin(@NonNull T record, @NonNull String binId);
 
+    /**
+     * Reads the response body of a bin as raw bytes, without deserializing it.
+     *
+     * <p>Meant for relaying bins elsewhere: the bytes are neither parsed nor re-serialized. Error
+     * responses are still mapped to a {@link JsonBinException} carrying the server's message.
+     *
+     * @param binId the unique identifier of the bin to read; must not be {@code null}
+     * @return a read-only buffer holding the JSON response body
+     */
+    ByteBuffer readBinRaw(@NonNull String binId);
+
+    /**
+     * Replaces the record of a bin with raw JSON bytes, which are sent without being parsed.
+     *
+     * @param binId the identifier of the bin to update; must not be {@code null}
+     * @param json the new record, from the buffer's position to its limit; its position is left
+     *     untouched and its contents must not change until the call returns
+     * @return a read-only buffer holding the JSON response body
+     */
+    ByteBuffer updateBinRaw(@NonNull String binId, @NonNull ByteBuffer json);
+
+    /**
+     * Replaces the record of a bin with the contents of a JSON file, streamed without being parsed
+     * or loaded into memory.
+     *
+     * @param binId the identifier of the bin to update; must not be {@code null}
+     * @param json the file holding the new record; must not be {@code null}
+     * @return a read-only buffer holding the JSON response body
+     */
+    ByteBuffer updateBinRaw(@NonNull String binId, @NonNull Path json);
+
+    /**
+     * Replaces the record of a bin with JSON read from a stream, which is streamed without being
+     * parsed or loaded into memory.
+     *
+     * <p>The stream can only be read once, so a request that fails is never retried.
+     *
+     * @param binId the identifier of the bin to update; must not be {@code null}
+     * @param json the stream holding the new record; it is read to its end but not closed
+     * @return a read-only buffer holding the JSON response body
+     */
+    ByteBuffer updateBinRaw(@NonNull String binId, @NonNull InputStream json);
+
     /**
      * Retrieves the list of bin handles contained in a collection.
      *
@@ -75,6 +223,47 @@ public interface JsonBin {
      */
     List<BinHandle> readCollection(@NonNull String collectionId);
 
+    /**
+     * Lazily lists every bin handle in a collection, walking the listing page by page.
+     *
+     * <p>Unlike {@link #readCollection(String)}, which returns the first page only, the stream
+     * continues after the last bin of each page until the listing is exhausted. The next page is
+     * fetched in the background while the current one is consumed, so no more than two pages are
+     * held in memory however large the collection is. A stream that is not consumed to the end
+     * should be closed, which cancels the prefetch.
+     *
+     * <pre>{@code
+     * try (Stream<BinHandle> handles = jsonBin.streamCollection(collectionId)) {
+     *     handles.filter(BinHandle::is_private).forEach(...);
+     * }
+     * }</pre>
+     *
+     * @param collectionId the identifier of the collection whose bins should be listed; must not be
+     *     {@code null}
+     * @return a sequential, ordered stream of the collection's {@link BinHandle} entries; a failed
+     *     page fetch surfaces as a {@link JsonBinException} from the stream operation consuming it
+     */
+    Stream<BinHandle> streamCollection(@NonNull String collectionId);
+
+    /**
+     * Reads the record of every bin in a collection, up to {@code parallelism} bins at a time.
+     *
+     * <p>The listing is walked as by {@link #streamCollection(String)}, and each bin's record is
+     * read as by {@link #readRecord(String, Class)} as soon as its handle is listed, so the total
+     * time is bounded by the rate the client may send requests at rather than by the sum of the
+     * round trips. Results are yielded in the order the reads complete. A bin that cannot be read
+     * yields a failed {@link CollectionRecord} and the other reads carry on; a listing page that
+     * cannot be read fails the stream. Reads only start as results are consumed, so no more than
+     * {@code parallelism} records are buffered. Closing the stream cancels the reads in flight.
+     *
+     * @param collectionId the identifier of the collection to read; must not be {@code null}
+     * @param cls the class of the expected record type {@code T}; must not be {@code null}
+     * @param parallelism the maximum number of bins read at once; must be positive
+     * @return a sequential stream of one {@link CollectionRecord} per bin, in completion order
+     */
+    <T> Stream<CollectionRecord<T>> readCollectionRecords(
+            @NonNull String collectionId, @NonNull Class<T> cls, int parallelism);
+
     /**
      * Creates a new collection with the specified name.
      *
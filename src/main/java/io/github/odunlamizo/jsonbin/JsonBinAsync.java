@@ -0,0 +1,173 @@
+package io.github.odunlamizo.jsonbin;
+
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.NonNull;
+
+/**
+ * Non-blocking counterpart of {@link JsonBin}.
+ *
+ * <p>Every method starts the HTTP exchange and returns immediately. The returned future completes
+ * with the same value the blocking method would return, or exceptionally with a {@link
+ * JsonBinException}. Cancelling the future cancels the underlying HTTP call.
+ */
+public interface JsonBinAsync {
+
+    /**
+     * Asynchronously reads the contents of a bin.
+     *
+     * @param binId the unique identifier of the bin to retrieve; must not be {@code null}
+     * @param cls the class of the expected record type {@code T}; must not be {@code null}
+     * @return a future completing with the deserialized {@link Bin}
+     * @see JsonBin#readBin(String, Class)
+     */
+    <T> CompletableFuture<Bin<T>> readBinAsync(@NonNull String binId, @NonNull Class<T> cls);
+
+    /**
+     * Asynchronously reads a specific version of a bin.
+     *
+     * @param binId the unique identifier of the bin to retrieve; must not be {@code null}
+     * @param version the version number to read; must not be negative
+     * @param cls the class of the expected record type {@code T}; must not be {@code null}
+     * @return a future completing with the deserialized {@link Bin}
+     * @see JsonBin#readBin(String, int, Class)
+     */
+    <T> CompletableFuture<Bin<T>> readBinAsync(
+            @NonNull String binId, int version, @NonNull Class<T> cls);
+
+    /**
+     * Asynchronously reads the record of a bin, without its metadata.
+     *
+     * @param binId the unique identifier of the bin to retrieve; must not be {@code null}
+     * @param cls the class of the expected record type {@code T}; must not be {@code null}
+     * @return a future completing with the deserialized record
+     * @see JsonBin#readRecord(String, Class)
+     */
+    <T> CompletableFuture<T> readRecordAsync(@NonNull String binId, @NonNull Class<T> cls);
+
+    /**
+     * Asynchronously reads the parts of a bin's record selected by a JSONPath expression.
+     *
+     * @param binId the unique identifier of the bin to retrieve; must not be {@code null}
+     * @param jsonPath the JSONPath expression; must not be {@code null}
+     * @param cls the class of each selected node; must not be {@code null}
+     * @return a future completing with a {@link Bin} holding the selected nodes
+     * @see JsonBin#readBin(String, String, Class)
+     */
+    <T> CompletableFuture<Bin<List<T>>> readBinAsync(
+            @NonNull String binId, @NonNull String jsonPath, @NonNull Class<T> cls);
+
+    /**
+     * Asynchronously reads a single node of a bin's record, evaluating a JSON Pointer on the
+     * client.
+     *
+     * @param binId the unique identifier of the bin to read; must not be {@code null}
+     * @param jsonPointer a JSON Pointer relative to the record; must not be {@code null}
+     * @param cls the class of the selected node; must not be {@code null}
+     * @return a future completing with the selected node, or {@code null} if there is none
+     * @see JsonBin#readBinAt(String, String, Class)
+     */
+    <T> CompletableFuture<T> readBinAtAsync(
+            @NonNull String binId, @NonNull String jsonPointer, @NonNull Class<T> cls);
+
+    /**
+     * Asynchronously returns the number of versions of a bin.
+     *
+     * @param binId the unique identifier of the bin; must not be {@code null}
+     * @return a future completing with the bin's version count
+     * @see JsonBin#readBinVersionCount(String)
+     */
+    CompletableFuture<Integer> readBinVersionCountAsync(@NonNull String binId);
+
+    /**
+     * Asynchronously creates a new bin with the provided record.
+     *
+     * @param record the payload to store in the new bin; must be serializable to JSON
+     * @param binName optional display name for the bin; ignored if {@code null} or blank
+     * @param isPrivate optional privacy flag; when {@code null} the server default is used
+     * @param collectionId optional collection identifier to attach the bin to; ignored if {@code
+     *     null} or blank
+     * @param <T> the type of the record stored in the bin
+     * @return a future completing with the created {@link Bin}
+     * @see JsonBin#createBin(Object, String, Boolean, String)
+     */
+    <T> CompletableFuture<Bin<T>> createBinAsync(
+            T record, String binName, Boolean isPrivate, String collectionId);
+
+    /**
+     * Asynchronously replaces the record of an existing bin.
+     *
+     * @param record the new payload; must not be {@code null}
+     * @param binId the identifier of the bin to update; must not be {@code null}
+     * @param <T> the type of the record stored in the bin
+     * @return a future completing with the updated {@link Bin}
+     * @see JsonBin#updateBin(Object, String)
+     */
+    <T> CompletableFuture<Bin<T>> updateBinAsync(@NonNull T record, @NonNull String binId);
+
+    /**
+     * Asynchronously reads the response body of a bin as raw bytes.
+     *
+     * @param binId the unique identifier of the bin to read; must not be {@code null}
+     * @return a future completing with a read-only buffer holding the JSON response body
+     * @see JsonBin#readBinRaw(String)
+     */
+    CompletableFuture<ByteBuffer> readBinRawAsync(@NonNull String binId);
+
+    /**
+     * Asynchronously replaces the record of a bin with raw JSON bytes.
+     *
+     * @param binId the identifier of the bin to update; must not be {@code null}
+     * @param json the new record; its contents must not change until the future completes
+     * @return a future completing with a read-only buffer holding the JSON response body
+     * @see JsonBin#updateBinRaw(String, ByteBuffer)
+     */
+    CompletableFuture<ByteBuffer> updateBinRawAsync(
+            @NonNull String binId, @NonNull ByteBuffer json);
+
+    /**
+     * Asynchronously replaces the record of a bin with the contents of a JSON file.
+     *
+     * <p>There is no variant taking an {@code InputStream}, whose reads would block the transport's
+     * threads.
+     *
+     * @param binId the identifier of the bin to update; must not be {@code null}
+     * @param json the file holding the new record; must not be {@code null}
+     * @return a future completing with a read-only buffer holding the JSON response body
+     * @see JsonBin#updateBinRaw(String, Path)
+     */
+    CompletableFuture<ByteBuffer> updateBinRawAsync(@NonNull String binId, @NonNull Path json);
+
+    /**
+     * Asynchronously lists the bin handles contained in a collection.
+     *
+     * @param collectionId the identifier of the collection; must not be {@code null}
+     * @return a future completing with the {@link BinHandle} entries in the collection
+     * @see JsonBin#readCollection(String)
+     */
+    CompletableFuture<List<BinHandle>> readCollectionAsync(@NonNull String collectionId);
+
+    /**
+     * Asynchronously creates a new collection.
+     *
+     * @param collectionName the name for the collection; must not be {@code null}
+     * @return a future completing with the server response
+     * @see JsonBin#createCollection(String)
+     */
+    CompletableFuture<Bin<String>> createCollectionAsync(@NonNull String collectionName);
+
+    /**
+     * Asynchronously updates the display name of an existing collection.
+     *
+     * @param collectionId the unique identifier of the collection; must not be {@code null}
+     * @param collectionName the new display name; must not be {@code null}
+     * @return a future completing with the server response
+     * @see JsonBin#updateCollection(String, String)
+     */
+    CompletableFuture<Bin<String>> updateCollectionAsync(
+            @NonNull String collectionId, @NonNull String collectionName);
+}
@@ -0,0 +1,24 @@
+package io.github.odunlamizo.jsonbin;
+
+import java.time.Duration;
+
+/** Thrown when JSONBin.io rejects a request with {@code 429 Too Many Requests}. */
+public class JsonBinRateLimitException extends JsonBinException {
+
+    private static final long serialVersionUID = -3318040462254071453L;
+
+    private final Duration retryAfter;
+
+    public JsonBinRateLimitException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns how long the server asked clients to wait, from its {@code Retry-After} header, or
+     * {@code null} if it did not say.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.odunlamizo.jsonbin;
+
+import io.github.odunlamizo.jsonbin.model.Bin;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+
+/**
+ * Write-behind buffer that coalesces high-frequency {@code updateBin} calls.
+ *
+ * <p>Only the newest pending record is kept per bin id; intermediate records are dropped. Pending
+ * records are written every {@code flushInterval}, on {@link #flush()} and on {@link #close()}.
+ * Each future returned by {@link #updateBin(Object, String)} completes with the result of the write
+ * that covers it, so callers that were coalesced share the same {@link Bin}.
+ *
+ * <p>Writes to the same bin never overlap: a bin whose previous write is still in flight keeps
+ * coalescing until a later flush.
+ *
+ * <pre>{@code
+ * try (WriteBehindBuffer buffer = new WriteBehindBuffer(jsonBin, Duration.ofSeconds(1))) {
+ *     buffer.updateBin(counter, "bin-id");
+ * }
+ * }</pre>
+ */
+public class WriteBehindBuffer implements Closeable {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final JsonBinAsync jsonBin;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Pending> pending = new HashMap<>();
+
+    private final Map<String, CompletableFuture<?>> inFlight = new HashMap<>();
+
+    private boolean closed;
+
+    /**
+     * @param jsonBin the client the coalesced writes are sent through; must not be {@code null}
+     * @param flushInterval how often pending records are written; must be positive
+     */
+    public WriteBehindBuffer(@NonNull JsonBinAsync jsonBin, @NonNull Duration flushInterval) {
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive.");
+        }
+
+        this.jsonBin = jsonBin;
+        this.scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "jsonbin-write-behind");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        long intervalNanos = flushInterval.toNanos();
+        scheduler.scheduleWithFixedDelay(
+                () -> flush(false), intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Queues {@code record} as the next value of the bin, replacing any record still pending for
+     * it.
+     *
+     * <p>Callers coalesced into one write all receive the {@link Bin} returned for the newest
+     * record, so records queued for the same bin should share a type.
+     *
+     * @param record the new payload; must not be {@code null}
+     * @param binId the identifier of the bin to update; must not be {@code null}
+     * @return a future completing once the write covering this record is acknowledged
+     * @throws IllegalStateException if the buffer has been closed
+     */
+    public <T> CompletableFuture<Bin<T>> updateBin(@NonNull T record, @NonNull String binId) {
+        CompletableFuture<Bin<T>> future = new CompletableFuture<>();
+
+        synchronized (pending) {
+            if (closed) {
+                throw new IllegalStateException("WriteBehindBuffer is closed");
+            }
+
+            pending.computeIfAbsent(binId, id -> new Pending()).add(record, future);
+        }
+
+        return future;
+    }
+
+    /**
+     * Writes every pending record, waiting behind writes to the same bin that are still in flight.
+     *
+     * @return a future completing once all of those writes have finished, successfully or not
+     */
+    public CompletableFuture<Void> flush() {
+        return flush(true);
+    }
+
+    /** Stops the periodic flush and writes everything still pending before returning. */
+    @Override
+    public void close() {
+        synchronized (pending) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        scheduler.shutdown();
+        flush().join();
+    }
+
+    private CompletableFuture<Void> flush(boolean waitForInFlight) {
+        List<CompletableFuture<?>> writes = new ArrayList<>();
+
+        synchronized (pending) {
+            Iterator<Map.Entry<String, Pending>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Pending> entry = iterator.next();
+                String binId = entry.getKey();
+                CompletableFuture<?> previous = inFlight.getOrDefault(binId, DONE);
+
+                if (!previous.isDone() && !waitForInFlight) {
+                    continue;
+                }
+
+                iterator.remove();
+                writes.add(write(binId, entry.getValue(), previous));
+            }
+        }
+
+        return CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new))
+                .handle((ignored, throwable) -> null);
+    }
+
+    /** Must be called while holding the {@code pending} lock. */
+    private CompletableFuture<?> write(String binId, Pending batch, CompletableFuture<?> previous) {
+        CompletableFuture<Bin<Object>> write =
+                previous.handle((ignored, throwable) -> null)
+                        .thenCompose(ignored -> jsonBin.updateBinAsync(batch.record, binId));
+        inFlight.put(binId, write);
+
+        return write.whenComplete(
+                (bin, throwable) -> {
+                    synchronized (pending) {
+                        inFlight.remove(binId, write);
+                    }
+                    batch.complete(bin, throwable);
+                });
+    }
+
+    private static final class Pending {
+
+        private Object record;
+
+        private final List<CompletableFuture<?>> waiters = new ArrayList<>();
+
+        private void add(Object record, CompletableFuture<?> waiter) {
+            this.record = record;
+            this.waiters.add(waiter);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Bin<Object> bin, Throwable throwable) {
+            if (throwable instanceof CompletionException && throwable.getCause() != null) {
+                throwable = throwable.getCause();
+            }
+
+            for (CompletableFuture<?> waiter : waiters) {
+                if (throwable != null) {
+                    waiter.completeExceptionally(throwable);
+                } else {
+                    ((CompletableFuture<Bin<Object>>) waiter).complete(bin);
+                }
+            }
+        }
+    }
+}
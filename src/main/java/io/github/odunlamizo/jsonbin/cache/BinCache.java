@@ -0,0 +1,179 @@
+package io.github.odunlamizo.jsonbin.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+
+/**
+ * Thread-safe, size-bounded cache of raw bin response bodies.
+ *
+ * <p>Entries are keyed by a string (usually the bin id) and hold the response bytes exactly as they
+ * came off the wire, so the budget is enforced on actual bytes rather than on entry count. When
+ * adding an entry would exceed {@code maxBytes}, the least recently used entries are evicted. Each
+ * entry expires {@code ttl} after it was stored; a {@code null} ttl keeps entries until they are
+ * evicted.
+ */
+public final class BinCache {
+
+    private final long maxBytes;
+
+    private final long ttlNanos;
+
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    /**
+     * @param maxBytes the maximum total size of cached bodies; must be positive
+     * @param ttl how long an entry stays fresh after it was stored; {@code null} for no expiry
+     */
+    public BinCache(long maxBytes, Duration ttl) {
+        this(maxBytes, ttl, System::nanoTime);
+    }
+
+    BinCache(long maxBytes, Duration ttl, @NonNull LongSupplier ticker) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive.");
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("ttl must be positive.");
+        }
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    /** Returns the cached body for {@code key}, or {@code null} if it is absent or has expired. */
+    public byte[] get(@NonNull String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && isExpired(entry)) {
+                remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            return entry.value;
+        }
+    }
+
+    /**
+     * Returns whether the entry for {@code key} expires within {@code window} and nobody has been
+     * told so since it was stored, marking it as told. The caller is expected to reload the entry,
+     * which keeps being served until it expires or is replaced.
+     */
+    public boolean claimRefresh(@NonNull String key, @NonNull Duration window) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (ttlNanos == 0 || entry == null || entry.refreshClaimed || isExpired(entry)) {
+                return false;
+            }
+            long age = ticker.getAsLong() - entry.storedAt;
+            if (age < ttlNanos - window.toNanos()) {
+                return false;
+            }
+            entry.refreshClaimed = true;
+            return true;
+        }
+    }
+
+    /**
+     * Gives up the refresh claimed by {@link #claimRefresh} for the entry of {@code key}, because
+     * the reload was not started or failed, so that a later read within the window claims it again.
+     */
+    public void releaseRefresh(@NonNull String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.refreshClaimed = false;
+            }
+        }
+    }
+
+    /**
+     * Stores {@code value} under {@code key}, evicting least recently used entries as needed.
+     * Bodies larger than the whole budget are not cached.
+     */
+    public void put(@NonNull String key, @NonNull byte[] value) {
+        synchronized (entries) {
+            remove(key);
+            if (value.length > maxBytes) {
+                return;
+            }
+            entries.put(key, new Entry(value, ticker.getAsLong()));
+            totalBytes += value.length;
+            evict();
+        }
+    }
+
+    /** Removes the entry for {@code key}, if any. */
+    public void invalidate(@NonNull String key) {
+        synchronized (entries) {
+            remove(key);
+        }
+    }
+
+    /** Removes every entry. */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            totalBytes = 0;
+        }
+    }
+
+    /** Returns a snapshot of this cache's counters. */
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits, misses, evictions, entries.size(), totalBytes);
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlNanos > 0 && ticker.getAsLong() - entry.storedAt >= ttlNanos;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.value.length;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.value.length;
+            evictions++;
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] value;
+
+        private final long storedAt;
+
+        private boolean refreshClaimed;
+
+        private Entry(byte[] value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.odunlamizo.jsonbin.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import lombok.NonNull;
+
+/**
+ * Converts JSON response bodies to a more compact form for caching.
+ *
+ * <p>Bodies can be transcoded token by token to Smile or CBOR, which drop the quotes, separators
+ * and repeated field names of JSON, and can be deflated on top of that. Cached entries then take a
+ * fraction of the heap of their JSON. A stored body is best {@linkplain #read read} with a reader
+ * of its own format, which binds it directly; {@link #decode} converts it back to JSON for callers
+ * that need the bytes. Instances are immutable and thread-safe.
+ */
+public final class CacheCodec {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final CacheEncoding encoding;
+
+    private final boolean compress;
+
+    private final JsonFactory factory;
+
+    private CacheCodec(CacheEncoding encoding, boolean compress, JsonFactory factory) {
+        this.encoding = encoding;
+        this.compress = compress;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns a codec storing bodies in {@code encoding}, deflated when {@code compress} is set.
+     *
+     * @throws IllegalStateException if the dataformat module of {@code encoding} is not on the
+     *     classpath
+     */
+    public static CacheCodec of(@NonNull CacheEncoding encoding, boolean compress) {
+        if (encoding.factoryClass == null) {
+            return new CacheCodec(encoding, compress, null);
+        }
+
+        JsonFactory factory;
+        try {
+            factory =
+                    (JsonFactory)
+                            Class.forName(encoding.factoryClass)
+                                    .getDeclaredConstructor()
+                                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError exception) {
+            throw new IllegalStateException(
+                    encoding.artifactId
+                            + " must be on the classpath to cache bodies as "
+                            + encoding,
+                    exception);
+        }
+        return new CacheCodec(encoding, compress, factory);
+    }
+
+    /**
+     * Returns the factory of the format bodies are stored in, for building the readers {@link
+     * #read} takes.
+     */
+    public JsonFactory factory() {
+        return factory == null ? JSON_FACTORY : factory;
+    }
+
+    public CacheEncoding encoding() {
+        return encoding;
+    }
+
+    public boolean isCompressed() {
+        return compress;
+    }
+
+    /** Converts a JSON body to its stored form. */
+    public byte[] encode(@NonNull byte[] json) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 16);
+            Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED, true) : null;
+            try (OutputStream target =
+                    compress ? new DeflaterOutputStream(out, deflater, CHUNK_SIZE) : out) {
+                if (factory == null) {
+                    target.write(json);
+                } else {
+                    transcode(JSON_FACTORY.createParser(json), factory.createGenerator(target));
+                }
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+            return out.toByteArray();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Binds a stored body with {@code reader}, which must read the format of {@link #factory()},
+     * inflating it on the fly if it is compressed.
+     */
+    public <T> T read(@NonNull ObjectReader reader, @NonNull byte[] stored) throws IOException {
+        if (!compress) {
+            return reader.readValue(stored);
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            return reader.readValue(
+                    new InflaterInputStream(
+                            new ByteArrayInputStream(stored), inflater, CHUNK_SIZE));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** Converts a stored body back to JSON. */
+    public byte[] decode(@NonNull byte[] stored) {
+        try {
+            Inflater inflater = compress ? new Inflater(true) : null;
+            try (InputStream source =
+                    compress
+                            ? new InflaterInputStream(
+                                    new ByteArrayInputStream(stored), inflater, CHUNK_SIZE)
+                            : new ByteArrayInputStream(stored)) {
+                if (factory == null) {
+                    return source.readAllBytes();
+                }
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream(stored.length * 2);
+                transcode(factory.createParser(source), JSON_FACTORY.createGenerator(out));
+                return out.toByteArray();
+            } finally {
+                if (inflater != null) {
+                    inflater.end();
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static void transcode(JsonParser parser, JsonGenerator generator) throws IOException {
+        try (parser;
+                generator) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+    }
+}
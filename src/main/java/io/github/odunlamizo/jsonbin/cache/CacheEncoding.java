@@ -0,0 +1,26 @@
+package io.github.odunlamizo.jsonbin.cache;
+
+/**
+ * How a {@link CacheCodec} stores bodies. The binary formats need their Jackson dataformat module
+ * on the classpath.
+ */
+public enum CacheEncoding {
+
+    /** Bodies are kept as received. */
+    JSON(null, null),
+
+    /** Bodies are transcoded to Smile; needs {@code jackson-dataformat-smile}. */
+    SMILE("com.fasterxml.jackson.dataformat.smile.SmileFactory", "jackson-dataformat-smile"),
+
+    /** Bodies are transcoded to CBOR; needs {@code jackson-dataformat-cbor}. */
+    CBOR("com.fasterxml.jackson.dataformat.cbor.CBORFactory", "jackson-dataformat-cbor");
+
+    final String factoryClass;
+
+    final String artifactId;
+
+    CacheEncoding(String factoryClass, String artifactId) {
+        this.factoryClass = factoryClass;
+        this.artifactId = artifactId;
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.odunlamizo.jsonbin.cache;
+
+import lombok.Value;
+
+/** Point-in-time snapshot of a {@link BinCache}'s counters. */
+@Value
+public class CacheStats {
+
+    /** Snapshot of a cache that is not configured. */
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0);
+
+    /** Number of lookups that were served from the cache. */
+    long hits;
+
+    /** Number of lookups that were not cached or had expired. */
+    long misses;
+
+    /** Number of entries removed to stay under the byte budget. */
+    long evictions;
+
+    /** Number of entries currently cached. */
+    long entryCount;
+
+    /** Total size in bytes of the entries currently cached. */
+    long totalBytes;
+
+    /** Returns the ratio of hits to lookups, or {@code 0} if the cache has not been queried yet. */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
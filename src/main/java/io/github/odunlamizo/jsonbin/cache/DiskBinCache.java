@@ -0,0 +1,280 @@
+package io.github.odunlamizo.jsonbin.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Thread-safe, size-bounded cache of raw bin response bodies kept in a directory, so that they
+ * survive restarts.
+ *
+ * <p>Each entry is one file named after its key. Entries are written to a temporary file that is
+ * synced and then atomically renamed over the previous one, and the directory is synced after the
+ * rename, so a crash leaves either the old or the new body, never a torn one. When adding an entry
+ * would exceed {@code maxBytes}, the least recently used entries are deleted; recency is kept in
+ * the files' modification times, so it carries over to the next process, which rebuilds the index
+ * from the directory when it opens it. Entries never expire.
+ */
+public final class DiskBinCache {
+
+    private static final String SUFFIX = ".json";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    /**
+     * Opens the cache in {@code directory}, creating it if needed, and indexes the entries a
+     * previous process left there.
+     *
+     * @param directory the directory holding the entries; should not be shared with other files
+     * @param maxBytes the maximum total size of cached bodies; must be positive
+     * @throws UncheckedIOException if the directory cannot be created or listed
+     */
+    public DiskBinCache(@NonNull Path directory, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive.");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+
+        try {
+            Files.createDirectories(directory);
+            load();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /** Returns the cached body for {@code key}, or {@code null} if it is absent or unreadable. */
+    public byte[] get(@NonNull String key) {
+        synchronized (sizes) {
+            if (sizes.get(key) == null) {
+                misses++;
+                return null;
+            }
+        }
+
+        Path file = file(key);
+        byte[] body;
+        try {
+            body = Files.readAllBytes(file);
+        } catch (IOException exception) {
+            synchronized (sizes) {
+                if (exception instanceof NoSuchFileException) {
+                    remove(key);
+                }
+                misses++;
+            }
+            return null;
+        }
+
+        synchronized (sizes) {
+            hits++;
+        }
+        touch(file);
+        return body;
+    }
+
+    /**
+     * Stores {@code value} under {@code key}, evicting least recently used entries as needed.
+     * Bodies larger than the whole budget are not cached. Failures to write are ignored, leaving
+     * the entry absent.
+     */
+    public void put(@NonNull String key, @NonNull byte[] value) {
+        if (value.length > maxBytes) {
+            invalidate(key);
+            return;
+        }
+
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, null, TEMP_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(value);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            synchronized (sizes) {
+                Files.move(
+                        temp,
+                        file(key),
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                temp = null;
+                remove(key);
+                sizes.put(key, (long) value.length);
+                totalBytes += value.length;
+                evict();
+            }
+            syncDirectory();
+        } catch (IOException exception) {
+            invalidate(key);
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /** Removes the entry for {@code key}, if any. */
+    public void invalidate(@NonNull String key) {
+        synchronized (sizes) {
+            remove(key);
+            deleteQuietly(file(key));
+        }
+    }
+
+    /** Removes every entry. */
+    public void invalidateAll() {
+        synchronized (sizes) {
+            for (String key : sizes.keySet()) {
+                deleteQuietly(file(key));
+            }
+            sizes.clear();
+            totalBytes = 0;
+        }
+    }
+
+    /** Returns a snapshot of this cache's counters. */
+    public CacheStats stats() {
+        synchronized (sizes) {
+            return new CacheStats(hits, misses, evictions, sizes.size(), totalBytes);
+        }
+    }
+
+    /**
+     * Indexes the entries in the directory, least recently used first, and deletes temporary files
+     * left by writes that were interrupted.
+     */
+    private void load() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    deleteQuietly(file);
+                } else if (name.endsWith(SUFFIX) && Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+
+        Map<Path, FileTime> modified = new LinkedHashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(modified::get));
+
+        synchronized (sizes) {
+            for (Path file : files) {
+                String key = key(file);
+                if (key == null) {
+                    continue;
+                }
+                long size = Files.size(file);
+                sizes.put(key, size);
+                totalBytes += size;
+            }
+            evict();
+        }
+    }
+
+    /** Syncs the directory, so that a rename into it survives a crash. */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+            // Some platforms, such as Windows, cannot open or sync a directory
+        }
+    }
+
+    private void remove(String key) {
+        Long removed = sizes.remove(key);
+        if (removed != null) {
+            totalBytes -= removed;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            evictions++;
+            deleteQuietly(file(eldest.getKey()));
+        }
+    }
+
+    /** Names the file after the key in URL-safe Base64, which is reversible and path-safe. */
+    private Path file(String key) {
+        return directory.resolve(
+                Base64.getUrlEncoder()
+                                .withoutPadding()
+                                .encodeToString(key.getBytes(StandardCharsets.UTF_8))
+                        + SUFFIX);
+    }
+
+    /** Returns the key a file was named after, or {@code null} if it is not an entry. */
+    private static String key(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return new String(
+                    Base64.getUrlDecoder()
+                            .decode(name.substring(0, name.length() - SUFFIX.length())),
+                    StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    /** Marks the file as recently used, for the next process to rebuild the LRU order from. */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Only the order of eviction after a restart depends on it
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // A file that cannot be deleted is overwritten or skipped later
+        }
+    }
+}
@@ -0,0 +1,1595 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.odunlamizo.jsonbin.BinWatch;
+import io.github.odunlamizo.jsonbin.JsonBin;
+import io.github.odunlamizo.jsonbin.JsonBinAsync;
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.JsonBinRateLimitException;
+import io.github.odunlamizo.jsonbin.cache.BinCache;
+import io.github.odunlamizo.jsonbin.cache.CacheCodec;
+import io.github.odunlamizo.jsonbin.cache.CacheEncoding;
+import io.github.odunlamizo.jsonbin.cache.CacheStats;
+import io.github.odunlamizo.jsonbin.cache.DiskBinCache;
+import io.github.odunlamizo.jsonbin.metrics.JsonBinMetrics;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import io.github.odunlamizo.jsonbin.model.CollectionRecord;
+import io.github.odunlamizo.jsonbin.model.Error;
+import io.github.odunlamizo.jsonbin.model.LazyBin;
+import io.github.odunlamizo.jsonbin.model.Metadata;
+import io.github.odunlamizo.jsonbin.transport.Transport;
+import io.github.odunlamizo.jsonbin.transport.TransportRequest;
+import io.github.odunlamizo.jsonbin.transport.TransportResponse;
+import io.github.odunlamizo.jsonbin.util.JsonPointerReader;
+import io.github.odunlamizo.jsonbin.util.JsonUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.NonNull;
+
+/**
+ * Transport-independent JSONBin.io client.
+ *
+ * <p>Implements the blocking and asynchronous APIs, caching, request coalescing and write
+ * deduplication on top of a {@link Transport}. Transport bindings such as {@code JsonBinOkHttp}
+ * extend this class and only contribute the transport and their own builder options.
+ */
+public abstract class AbstractJsonBin implements JsonBin, JsonBinAsync {
+
+    private static final String READ_BIN = "readBin";
+
+    private static final String READ_BIN_PATH = "readBinPath";
+
+    private static final String READ_BIN_VERSION = "readBinVersion";
+
+    private static final String READ_RECORD = "readRecord";
+
+    private static final String READ_BIN_VERSION_COUNT = "readBinVersionCount";
+
+    private static final String CREATE_BIN = "createBin";
+
+    private static final String UPDATE_BIN = "updateBin";
+
+    private static final String READ_COLLECTION = "readCollection";
+
+    private static final String CREATE_COLLECTION = "createCollection";
+
+    private static final String UPDATE_COLLECTION = "updateCollection";
+
+    private final Transport transport;
+
+    private final String masterKey;
+
+    private final String accessKey;
+
+    private final String baseUrl;
+
+    private final Executor executor;
+
+    private final long maxBodySize;
+
+    private final TieredCache cache;
+
+    private final TieredCache versionCache;
+
+    private final DiskBinCache diskCache;
+
+    private final SingleFlight<String, SharedBody> flights;
+
+    /** Coalesces background refreshes; the read {@link #flights} when reads are coalesced. */
+    private final SingleFlight<String, SharedBody> refreshFlights;
+
+    private final WriteDeduplicator deduplicator;
+
+    private final JsonUtil.Registry json;
+
+    /** Encodes in-memory cache entries, or {@code null} if they are kept as received. */
+    private final CacheCodec cacheCodec;
+
+    /** Reads in-memory cache entries in the format {@link #cacheCodec} stores them in. */
+    private final JsonUtil.Registry cacheJson;
+
+    private final ObjectReader versionCountReader;
+
+    private final ObjectReader binHandlesReader;
+
+    private final ObjectReader collectionReader;
+
+    private final ObjectReader errorReader;
+
+    private final JsonBinMetrics metrics;
+
+    private final long compressionThreshold;
+
+    private final boolean binMeta;
+
+    private final boolean lazyRecords;
+
+    private final BinWatcher watcher;
+
+    protected AbstractJsonBin(@NonNull Transport transport, @NonNull Builder<?> builder) {
+        this.transport = builder.throttle(transport);
+        this.masterKey = builder.masterKey;
+        this.accessKey = builder.accessKey;
+        this.baseUrl = builder.baseUrl;
+        this.executor = builder.executor;
+        this.maxBodySize = builder.maxBodySize;
+        if (builder.refreshAhead != null && builder.cache == null) {
+            throw new IllegalArgumentException("withRefreshAhead requires withCache.");
+        }
+        this.cache =
+                TieredCache.of(
+                        builder.cache,
+                        builder.diskCache,
+                        "b/",
+                        true,
+                        builder.refreshAhead,
+                        builder.refreshBudget,
+                        builder.cacheCodec);
+        this.versionCache =
+                TieredCache.of(
+                        builder.versionCache, builder.diskCache, "v/", false, builder.cacheCodec);
+        this.diskCache = builder.diskCache;
+        this.flights = builder.coalesceRequests ? new SingleFlight<>() : null;
+        this.refreshFlights = flights != null ? flights : new SingleFlight<>();
+        this.deduplicator = builder.deduplicator;
+        this.json = builder.blackbird ? JsonUtil.blackbirdRegistry() : JsonUtil.registry();
+        this.json.warmUp(builder.warmUpTypes);
+        this.cacheCodec = builder.cacheCodec;
+        this.cacheJson = cacheCodec == null ? json : json.withFactory(cacheCodec.factory());
+        this.versionCountReader = json.binReader(Object.class);
+        this.binHandlesReader = json.reader(new TypeReference<List<BinHandle>>() {});
+        this.collectionReader = json.binReader(String.class);
+        this.errorReader = json.reader(new TypeReference<Error>() {});
+        this.metrics = builder.metrics;
+        this.compressionThreshold = builder.compressionThreshold;
+        this.binMeta = builder.binMeta;
+        this.lazyRecords = builder.lazyRecords;
+        this.watcher =
+                new BinWatcher(
+                        builder.watchInterval.toNanos(),
+                        builder.watchJitter.toNanos(),
+                        binId -> newAsyncCall(latestRequest(binId), InputStream::readAllBytes),
+                        System::nanoTime);
+    }
+
+    /**
+     * Configuration shared by every transport binding.
+     *
+     * @param <B> the concrete builder type, returned by every {@code with} method
+     */
+    public abstract static class Builder<B extends Builder<B>> {
+        private String masterKey;
+
+        private String accessKey;
+
+        private String baseUrl = "https://api.jsonbin.io/v3";
+
+        private Executor executor = ForkJoinPool.commonPool();
+
+        private long maxBodySize = Long.MAX_VALUE;
+
+        private BinCache cache;
+
+        private BinCache versionCache;
+
+        private Duration refreshAhead;
+
+        private TokenBucket refreshBudget;
+
+        private CacheCodec cacheCodec;
+
+        private DiskBinCache diskCache;
+
+        private boolean coalesceRequests;
+
+        private WriteDeduplicator deduplicator;
+
+        private TokenBucket rateLimiter;
+
+        private AdaptiveConcurrencyLimit concurrencyLimit;
+
+        private int maxRetries;
+
+        private Duration maxRetryDelay = Duration.ofSeconds(30);
+
+        private boolean blackbird;
+
+        private Class<?>[] warmUpTypes = new Class<?>[0];
+
+        private JsonBinMetrics metrics = JsonBinMetrics.NOOP;
+
+        private long compressionThreshold = -1;
+
+        private boolean binMeta = true;
+
+        private boolean lazyRecords;
+
+        private Duration watchInterval = Duration.ofSeconds(30);
+
+        private Duration watchJitter = Duration.ofSeconds(3);
+
+        public B withMasterKey(String masterKey) {
+            this.masterKey = masterKey;
+            return self();
+        }
+
+        public B withAccessKey(String accessKey) {
+            this.accessKey = accessKey;
+            return self();
+        }
+
+        public B withBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return self();
+        }
+
+        /**
+         * Sets the executor that deserializes responses of the asynchronous API, keeping Jackson
+         * work off the transport's I/O threads. Defaults to {@link ForkJoinPool#commonPool()}.
+         */
+        public B withExecutor(@NonNull Executor executor) {
+            this.executor = executor;
+            return self();
+        }
+
+        /**
+         * Caps the size of response bodies. Responses that declare a larger {@code Content-Length}
+         * fail before any byte is read, and streamed bodies fail as soon as they cross the limit.
+         * Unlimited by default.
+         */
+        public B withMaxBodySize(long maxBodySize) {
+            if (maxBodySize <= 0) {
+                throw new IllegalArgumentException("maxBodySize must be positive.");
+            }
+            this.maxBodySize = maxBodySize;
+            return self();
+        }
+
+        /**
+         * Enables a read-through cache for {@link AbstractJsonBin#readBin(String, Class)} and
+         * {@link AbstractJsonBin#readRecord(String, Class)}. Response bodies are cached per bin id
+         * for {@code ttl}, and the least recently used ones are evicted once their total size
+         * exceeds {@code maxBytes}. {@code updateBin} calls made through this client invalidate the
+         * bin's entry.
+         */
+        public B withCache(@NonNull Duration ttl, long maxBytes) {
+            this.cache = new BinCache(maxBytes, ttl);
+            return self();
+        }
+
+        /**
+         * Reloads entries of the {@link #withCache} cache that are read within {@code window} of
+         * their expiry in the background, so that callers of hot bins keep hitting the cache
+         * instead of paying for the round trip once it expires. The current entry is served until
+         * the reload lands. Each entry is reloaded at most once per fetch, and entries that are not
+         * read in the window simply expire. At most {@code refreshesPerSecond} reloads are started
+         * on average; reads past that rate do not trigger one. Reloads also count against {@link
+         * #withRateLimit}. Requires {@link #withCache}.
+         */
+        public B withRefreshAhead(@NonNull Duration window, double refreshesPerSecond) {
+            if (window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("window must be positive.");
+            }
+            this.refreshAhead = window;
+            this.refreshBudget =
+                    new TokenBucket(
+                            refreshesPerSecond,
+                            Math.max(1, (int) refreshesPerSecond),
+                            System::nanoTime);
+            return self();
+        }
+
+        /**
+         * Enables a cache for {@link AbstractJsonBin#readBin(String, int, Class)}. Past versions of
+         * a bin never change, so entries never expire; the least recently used ones are only
+         * evicted to keep the total size under {@code maxBytes}.
+         */
+        public B withVersionCache(long maxBytes) {
+            this.versionCache = new BinCache(maxBytes, null);
+            return self();
+        }
+
+        /**
+         * Keeps the bodies cached in memory by {@link #withCache} and {@link #withVersionCache} as
+         * {@code encoding}, deflated as well when {@code compress} is set, instead of as the JSON
+         * received. Smile and CBOR bodies typically take well under half the heap of their JSON,
+         * and deflating cuts repetitive bodies further, so the same {@code maxBytes} holds more
+         * bins. Cache hits of {@code readBin} and {@code readRecord} bind the stored body directly,
+         * with a mapper of its format, inflating it on the fly; the raw and JSON Pointer reads
+         * convert it back to JSON. The disk cache keeps JSON. {@link CacheEncoding#JSON} without
+         * compression, the default, keeps bodies as received.
+         *
+         * @throws IllegalStateException if the dataformat module of {@code encoding} is not on the
+         *     classpath
+         */
+        public B withCacheEncoding(@NonNull CacheEncoding encoding, boolean compress) {
+            this.cacheCodec =
+                    encoding == CacheEncoding.JSON && !compress
+                            ? null
+                            : CacheCodec.of(encoding, compress);
+            return self();
+        }
+
+        /**
+         * Keeps the bodies cached by {@link #withCache} and {@link #withVersionCache}, or that
+         * those caches would hold when they are not enabled, in {@code directory} as well, so that
+         * they survive restarts. The least recently used bodies are deleted once their total size
+         * exceeds {@code maxBytes}.
+         *
+         * <p>Past versions are served from disk like from memory. A bin's latest record is served
+         * from disk only on its first read by this process, which also refetches it in the
+         * background; later reads go through the in-memory cache or the network as usual. A new
+         * process can thus serve the bins its predecessor used without waiting on, or spending
+         * quota for, a burst of requests. Every body fetched is written and synced to disk on the
+         * calling thread, or the executor for asynchronous calls. The directory should only be used
+         * by one client at a time.
+         */
+        public B withDiskCache(@NonNull Path directory, long maxBytes) {
+            this.diskCache = new DiskBinCache(directory, maxBytes);
+            return self();
+        }
+
+        /**
+         * Coalesces concurrent {@code readBin} calls for the same bin id, and concurrent {@code
+         * readCollection} calls for the same collection id, into one in-flight HTTP call. The
+         * shared body is deserialized once per record type, so concurrent callers asking for the
+         * same type receive the same instance and must treat it as read-only. Disabled by default.
+         */
+        public B withRequestCoalescing(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return self();
+        }
+
+        /**
+         * Skips {@code updateBin} calls whose serialized record is identical to the last record
+         * this client wrote to or read from the bin. A SHA-256 hash of the record is kept for up to
+         * {@code maxEntries} recently used bins. Skipped calls do no network I/O and return a
+         * {@link Bin} holding the given record and the bin id; they are counted by {@link
+         * AbstractJsonBin#skippedWrites()}. The record of a {@link LazyBin} that is read is hashed
+         * as received rather than bound, so it only matches a record that serializes to the same
+         * JSON.
+         */
+        public B withWriteDeduplication(int maxEntries) {
+            this.deduplicator = new WriteDeduplicator(maxEntries);
+            return self();
+        }
+
+        /**
+         * Limits this client to {@code requestsPerSecond} requests on average, with bursts of up to
+         * {@code burst} requests. Requests over the rate wait for their turn instead of failing;
+         * asynchronous calls wait without holding a thread. Retries count against the rate too.
+         */
+        public B withRateLimit(double requestsPerSecond, int burst) {
+            this.rateLimiter = new TokenBucket(requestsPerSecond, burst, System::nanoTime);
+            return self();
+        }
+
+        /**
+         * Caps the number of requests in flight, starting at {@code initialLimit} and adapting up
+         * to {@code maxLimit}. The limit grows while latency stays near its observed minimum, and
+         * shrinks when latency climbs or the server answers {@code 429 Too Many Requests}. Requests
+         * over the limit queue until a response is closed.
+         */
+        public B withAdaptiveConcurrency(int initialLimit, int maxLimit) {
+            this.concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, maxLimit);
+            return self();
+        }
+
+        /**
+         * Retries requests answered with {@code 429 Too Many Requests} up to {@code maxRetries}
+         * times. Each retry waits for the response's {@code Retry-After}, or backs off
+         * exponentially from 500 ms when it is absent. Once retries run out, or the server asks to
+         * wait longer than {@link #withMaxRetryDelay}, the call fails with a {@link
+         * JsonBinRateLimitException}. No retries by default.
+         */
+        public B withMaxRetries(int maxRetries) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries must not be negative.");
+            }
+            this.maxRetries = maxRetries;
+            return self();
+        }
+
+        /**
+         * Caps how long a {@link #withMaxRetries} retry may wait. A {@code Retry-After} longer than
+         * {@code maxRetryDelay} fails the call right away instead of putting the caller to sleep,
+         * and backoff never waits longer. 30 seconds by default.
+         */
+        public B withMaxRetryDelay(@NonNull Duration maxRetryDelay) {
+            if (maxRetryDelay.isNegative()) {
+                throw new IllegalArgumentException("maxRetryDelay must not be negative.");
+            }
+            this.maxRetryDelay = maxRetryDelay;
+            return self();
+        }
+
+        /**
+         * Deserializes and serializes records through a mapper with Jackson's Blackbird module,
+         * which replaces reflective getter and setter calls with generated lambdas. Requires {@code
+         * com.fasterxml.jackson.module:jackson-module-blackbird} on the classpath. Disabled by
+         * default.
+         */
+        public B withBlackbird(boolean blackbird) {
+            this.blackbird = blackbird;
+            return self();
+        }
+
+        /**
+         * Resolves the readers and writers of {@code recordTypes} while the client is built, so the
+         * first request for each type does not pay for it.
+         */
+        public B withWarmUp(@NonNull Class<?>... recordTypes) {
+            this.warmUpTypes = recordTypes.clone();
+            return self();
+        }
+
+        /**
+         * Reports the latency of every HTTP-backed operation, its status or failure, the bytes it
+         * sent and received, and the time spent decoding the response. Transports that can see
+         * inside a call also report its phases and connection reuse. Nothing is recorded by
+         * default.
+         *
+         * @see io.github.odunlamizo.jsonbin.metrics.MicrometerJsonBinMetrics
+         */
+        public B withMetrics(@NonNull JsonBinMetrics metrics) {
+            this.metrics = metrics;
+            return self();
+        }
+
+        /**
+         * Gzip-compresses {@code createBin} and {@code updateBin} request bodies larger than {@code
+         * thresholdBytes}, and sends them with {@code Content-Encoding: gzip}. The record is
+         * compressed while it is serialized, without being buffered. To decide, the record is first
+         * serialized to a counter that stops at the threshold, so records under the threshold are
+         * serialized twice. Disabled by default.
+         */
+        public B withRequestCompression(long thresholdBytes) {
+            if (thresholdBytes < 0) {
+                throw new IllegalArgumentException("thresholdBytes must not be negative.");
+            }
+            this.compressionThreshold = thresholdBytes;
+            return self();
+        }
+
+        /**
+         * When {@code false}, {@code readBin(binId, cls)}, {@code readBinAt} and {@code watch}
+         * fetch the latest record without its metadata, as {@link
+         * AbstractJsonBin#readRecord(String, Class)} does. The record is bound directly, unless
+         * {@link #withLazyRecords} is on, and the returned {@link Bin}'s metadata only carries the
+         * bin id. Reads of past versions are not affected. Enabled by default.
+         */
+        public B withBinMeta(boolean binMeta) {
+            this.binMeta = binMeta;
+            return self();
+        }
+
+        /**
+         * When {@code true}, the {@link Bin}s returned by {@code readBin}, {@code createBin} and
+         * {@code updateBin} are {@link LazyBin}s, which keep the record as buffered JSON tokens and
+         * only bind it on the first {@code getRecord()} call, so callers that only need the
+         * metadata skip binding it. A record that does not fit the requested type then fails on
+         * that call rather than on the read. Disabled by default.
+         */
+        public B withLazyRecords(boolean lazyRecords) {
+            this.lazyRecords = lazyRecords;
+            return self();
+        }
+
+        /**
+         * Sets how often {@link AbstractJsonBin#watch} polls each watched bin: every {@code
+         * interval}, plus or minus a random duration of up to {@code jitter}. Every 30 seconds,
+         * plus or minus 3, by default.
+         */
+        public B withWatchInterval(@NonNull Duration interval, @NonNull Duration jitter) {
+            if (interval.isNegative() || interval.isZero()) {
+                throw new IllegalArgumentException("interval must be positive.");
+            }
+            if (jitter.isNegative() || jitter.compareTo(interval) >= 0) {
+                throw new IllegalArgumentException("jitter must be between zero and interval.");
+            }
+            this.watchInterval = interval;
+            this.watchJitter = jitter;
+            return self();
+        }
+
+        /** Returns the configured metrics, for transports that report call phases. */
+        protected JsonBinMetrics metrics() {
+            return metrics;
+        }
+
+        /** Creates the client; implementations call {@link #validate()} first. */
+        public abstract AbstractJsonBin build();
+
+        protected void validate() {
+            if ((masterKey == null || masterKey.isBlank())
+                    && (accessKey == null || accessKey.isBlank())) {
+                throw new IllegalArgumentException(
+                        "Either masterKey or accessKey must be provided.");
+            }
+        }
+
+        private Transport throttle(Transport transport) {
+            if (rateLimiter == null && concurrencyLimit == null && maxRetries == 0) {
+                return transport;
+            }
+
+            return new ThrottledTransport(
+                    transport, rateLimiter, concurrencyLimit, maxRetries, maxRetryDelay);
+        }
+
+        @SuppressWarnings("unchecked")
+        protected B self() {
+            return (B) this;
+        }
+    }
+
+    @Override
+    public <T> Bin<T> readBin(@NonNull String binId, @NonNull Class<T> cls) {
+        if (!binMeta && lazyRecords) {
+            return withLocalMetadata(
+                    read(
+                            recordKey(binId),
+                            cache,
+                            () -> readRecordRequest(binId),
+                            registry -> registry.lazyRecordReader(cls),
+                            rememberRead(binId)),
+                    binId);
+        }
+        if (!binMeta) {
+            return localBin(readRecord(binId, cls), binId);
+        }
+
+        return read(
+                binId, cache, () -> readBinRequest(binId), binReaderOf(cls), rememberRead(binId));
+    }
+
+    @Override
+    public <T> CompletableFuture<Bin<T>> readBinAsync(
+            @NonNull String binId, @NonNull Class<T> cls) {
+        if (!binMeta && lazyRecords) {
+            return this.<Bin<T>>readAsync(
+                            recordKey(binId),
+                            cache,
+                            () -> readRecordRequest(binId),
+                            registry -> registry.lazyRecordReader(cls),
+                            rememberRead(binId))
+                    .thenApply(bin -> withLocalMetadata(bin, binId));
+        }
+        if (!binMeta) {
+            CompletableFuture<T> record = readRecordAsync(binId, cls);
+            CompletableFuture<Bin<T>> bin = record.thenApply(value -> localBin(value, binId));
+            bin.whenComplete(
+                    (value, throwable) -> {
+                        if (bin.isCancelled()) {
+                            record.cancel(true);
+                        }
+                    });
+            return bin;
+        }
+
+        return readAsync(
+                binId, cache, () -> readBinRequest(binId), binReaderOf(cls), rememberRead(binId));
+    }
+
+    @Override
+    public <T> T readRecord(@NonNull String binId, @NonNull Class<T> cls) {
+        return read(
+                recordKey(binId),
+                cache,
+                () -> readRecordRequest(binId),
+                registry -> registry.reader(cls),
+                rememberRecord(binId));
+    }
+
+    @Override
+    public <T> BinWatch watch(
+            @NonNull String binId, @NonNull Class<T> cls, @NonNull Consumer<Bin<T>> listener) {
+        ObjectReader reader = binMeta ? json.binReader(cls) : json.reader(cls);
+        return watcher.<Bin<T>>watch(
+                binId,
+                body -> binMeta ? toValue(body, reader) : localBin(toValue(body, reader), binId),
+                listener);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> readRecordAsync(@NonNull String binId, @NonNull Class<T> cls) {
+        return readAsync(
+                recordKey(binId),
+                cache,
+                () -> readRecordRequest(binId),
+                registry -> registry.reader(cls),
+                rememberRecord(binId));
+    }
+
+    @Override
+    public <T> Bin<List<T>> readBin(
+            @NonNull String binId, @NonNull String jsonPath, @NonNull Class<T> cls) {
+        return newCall(readBinPathRequest(binId, jsonPath), json.projectionReader(cls));
+    }
+
+    @Override
+    public <T> CompletableFuture<Bin<List<T>>> readBinAsync(
+            @NonNull String binId, @NonNull String jsonPath, @NonNull Class<T> cls) {
+        return newAsyncCall(readBinPathRequest(binId, jsonPath), json.projectionReader(cls));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The pointer is evaluated against the body cached by {@link Builder#withCache} when there
+     * is one; otherwise the bin is fetched, and cached when enabled.
+     */
+    @Override
+    public <T> T readBinAt(
+            @NonNull String binId, @NonNull String jsonPointer, @NonNull Class<T> cls) {
+        JsonPointer pointer = recordPointer(jsonPointer);
+        ObjectReader reader = json.reader(cls);
+        String key = binMeta ? binId : recordKey(binId);
+        byte[] cached = cached(key, () -> latestRequest(binId));
+        if (cached != null) {
+            return readAt(cached, pointer, reader);
+        }
+
+        return newCall(latestRequest(binId), readAtReader(key, pointer, reader));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> readBinAtAsync(
+            @NonNull String binId, @NonNull String jsonPointer, @NonNull Class<T> cls) {
+        JsonPointer pointer = recordPointer(jsonPointer);
+        ObjectReader reader = json.reader(cls);
+        String key = binMeta ? binId : recordKey(binId);
+        byte[] cached = cached(key, () -> latestRequest(binId));
+        if (cached != null) {
+            return CompletableFuture.supplyAsync(() -> readAt(cached, pointer, reader), executor);
+        }
+
+        return newAsyncCall(latestRequest(binId), readAtReader(key, pointer, reader));
+    }
+
+    @Override
+    public <T> Bin<T> readBin(@NonNull String binId, int version, @NonNull Class<T> cls) {
+        return read(
+                versionKey(binId, version),
+                versionCache,
+                () -> readBinVersionRequest(binId, version),
+                binReaderOf(cls),
+                bin -> {});
+    }
+
+    @Override
+    public <T> CompletableFuture<Bin<T>> readBinAsync(
+            @NonNull String binId, int version, @NonNull Class<T> cls) {
+        return readAsync(
+                versionKey(binId, version),
+                versionCache,
+                () -> readBinVersionRequest(binId, version),
+                binReaderOf(cls),
+                bin -> {});
+    }
+
+    @Override
+    public int readBinVersionCount(@NonNull String binId) {
+        return versionCount(newCall(readBinVersionCountRequest(binId), versionCountReader));
+    }
+
+    @Override
+    public CompletableFuture<Integer> readBinVersionCountAsync(@NonNull String binId) {
+        return newAsyncCall(
+                readBinVersionCountRequest(binId),
+                stream -> versionCount(versionCountReader.readValue(stream)));
+    }
+
+    @Override
+    public <T> Bin<T> createBin(T record, String binName, Boolean isPrivate, String collectionId) {
+        return newCall(
+                createBinRequest(record, binName, isPrivate, collectionId),
+                binReader(record.getClass()));
+    }
+
+    @Override
+    public <T> CompletableFuture<Bin<T>> createBinAsync(
+            T record, String binName, Boolean isPrivate, String collectionId) {
+        return newAsyncCall(
+                createBinRequest(record, binName, isPrivate, collectionId),
+                binReader(record.getClass()));
+    }
+
+    @Override
+    public <T> Bin<T> updateBin(@NonNull T record, @NonNull String binId) {
+        byte[] hash =
+                deduplicator == null
+                        ? null
+                        : deduplicator.hash(record, json.writer(record.getClass()));
+        if (hash != null && deduplicator.isUnchanged(binId, hash)) {
+            return localBin(record, binId);
+        }
+
+        try {
+            return newCall(
+                    updateBinRequest(record, binId),
+                    updateBinReader(binId, hash, binReader(record.getClass())));
+        } catch (RuntimeException exception) {
+            if (deduplicator != null) {
+                deduplicator.forget(binId);
+            }
+            throw exception;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<Bin<T>> updateBinAsync(@NonNull T record, @NonNull String binId) {
+        byte[] hash =
+                deduplicator == null
+                        ? null
+                        : deduplicator.hash(record, json.writer(record.getClass()));
+        if (hash != null && deduplicator.isUnchanged(binId, hash)) {
+            return CompletableFuture.completedFuture(localBin(record, binId));
+        }
+
+        CompletableFuture<Bin<T>> future =
+                newAsyncCall(
+                        updateBinRequest(record, binId),
+                        updateBinReader(binId, hash, binReader(record.getClass())));
+        if (deduplicator != null) {
+            future.whenComplete(
+                    (bin, throwable) -> {
+                        if (throwable != null) {
+                            deduplicator.forget(binId);
+                        }
+                    });
+        }
+        return future;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The body has the shape {@link #readBin(String, Class)} receives: the record wrapped with
+     * its metadata, or the bare record when {@link Builder#withBinMeta} is off. It is served from
+     * and stored in the {@code readBin} cache when one is configured.
+     */
+    @Override
+    public ByteBuffer readBinRaw(@NonNull String binId) {
+        String key = binMeta ? binId : recordKey(binId);
+        byte[] cached = cached(key, () -> latestRequest(binId));
+        if (cached != null) {
+            return ByteBuffer.wrap(cached).asReadOnlyBuffer();
+        }
+
+        return newCall(latestRequest(binId), rawReader(key));
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> readBinRawAsync(@NonNull String binId) {
+        String key = binMeta ? binId : recordKey(binId);
+        byte[] cached = cached(key, () -> latestRequest(binId));
+        if (cached != null) {
+            return CompletableFuture.completedFuture(ByteBuffer.wrap(cached).asReadOnlyBuffer());
+        }
+
+        return newAsyncCall(latestRequest(binId), rawReader(key));
+    }
+
+    @Override
+    public ByteBuffer updateBinRaw(@NonNull String binId, @NonNull ByteBuffer json) {
+        return newCall(
+                updateBinRawRequest(binId, RawBody.of(json, bytesSent(UPDATE_BIN))),
+                updateBinRawReader(binId));
+    }
+
+    @Override
+    public ByteBuffer updateBinRaw(@NonNull String binId, @NonNull Path json) {
+        return newCall(
+                updateBinRawRequest(binId, RawBody.of(json, bytesSent(UPDATE_BIN))),
+                updateBinRawReader(binId));
+    }
+
+    @Override
+    public ByteBuffer updateBinRaw(@NonNull String binId, @NonNull InputStream json) {
+        return newCall(
+                updateBinRawRequest(binId, RawBody.of(json, bytesSent(UPDATE_BIN))),
+                updateBinRawReader(binId));
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> updateBinRawAsync(
+            @NonNull String binId, @NonNull ByteBuffer json) {
+        return newAsyncCall(
+                updateBinRawRequest(binId, RawBody.of(json, bytesSent(UPDATE_BIN))),
+                updateBinRawReader(binId));
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> updateBinRawAsync(
+            @NonNull String binId, @NonNull Path json) {
+        return newAsyncCall(
+                updateBinRawRequest(binId, RawBody.of(json, bytesSent(UPDATE_BIN))),
+                updateBinRawReader(binId));
+    }
+
+    /**
+     * Returns how many {@code updateBin} calls were answered locally because the record matched the
+     * last one written to or read from the bin.
+     */
+    public long skippedWrites() {
+        return deduplicator == null ? 0 : deduplicator.skipped();
+    }
+
+    /**
+     * Returns how many background refreshes of the {@code readBin} cache, by {@link
+     * Builder#withRefreshAhead} or after serving a body from {@link Builder#withDiskCache}, have
+     * failed. Failed refreshes are also recorded as failed operations by the metrics.
+     */
+    public long failedRefreshes() {
+        return cache == null ? 0 : cache.failedRefreshes();
+    }
+
+    /** Returns counters of the {@code readBin} cache, or {@link CacheStats#EMPTY} if disabled. */
+    public CacheStats cacheStats() {
+        return cache == null ? CacheStats.EMPTY : cache.stats();
+    }
+
+    /** Returns counters of the immutable version cache, or {@link CacheStats#EMPTY} if disabled. */
+    public CacheStats versionCacheStats() {
+        return versionCache == null ? CacheStats.EMPTY : versionCache.stats();
+    }
+
+    /** Returns counters of the disk cache, or {@link CacheStats#EMPTY} if disabled. */
+    public CacheStats diskCacheStats() {
+        return diskCache == null ? CacheStats.EMPTY : diskCache.stats();
+    }
+
+    @Override
+    public List<BinHandle> readCollection(@NonNull String collectionId) {
+        if (flights != null) {
+            return flights.execute(
+                            "c/" + collectionId,
+                            () ->
+                                    newCall(
+                                            readCollectionRequest(collectionId),
+                                            stream -> new SharedBody(stream.readAllBytes())))
+                    .get(binHandlesReader);
+        }
+
+        return newCall(readCollectionRequest(collectionId), binHandlesReader);
+    }
+
+    @Override
+    public CompletableFuture<List<BinHandle>> readCollectionAsync(@NonNull String collectionId) {
+        if (flights != null) {
+            return flights.executeAsync(
+                            "c/" + collectionId,
+                            () ->
+                                    newAsyncCall(
+                                            readCollectionRequest(collectionId),
+                                            stream -> new SharedBody(stream.readAllBytes())))
+                    .thenApply(body -> body.<List<BinHandle>>get(binHandlesReader));
+        }
+
+        return newAsyncCall(readCollectionRequest(collectionId), binHandlesReader);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Pages are deserialized on the configured executor, like responses of the asynchronous API.
+     */
+    @Override
+    public Stream<BinHandle> streamCollection(@NonNull String collectionId) {
+        CollectionPages pages = collectionPages(collectionId);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(
+                                pages, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(pages::close);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Records are read with {@link #readRecordAsync(String, Class)}, so they go through the
+     * cache, request coalescing, rate limit and concurrency limit configured on the builder, and
+     * the listing is prefetched as in {@link #streamCollection(String)}.
+     */
+    @Override
+    public <T> Stream<CollectionRecord<T>> readCollectionRecords(
+            @NonNull String collectionId, @NonNull Class<T> cls, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+
+        CollectionPages pages = collectionPages(collectionId);
+        CollectionRecords<T> records =
+                new CollectionRecords<>(pages, binId -> readRecordAsync(binId, cls), parallelism);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(records, Spliterator.NONNULL), false)
+                .onClose(
+                        () -> {
+                            records.close();
+                            pages.close();
+                        });
+    }
+
+    private CollectionPages collectionPages(String collectionId) {
+        return new CollectionPages(
+                lastBinId ->
+                        newAsyncCall(
+                                lastBinId == null
+                                        ? readCollectionRequest(collectionId)
+                                        : readCollectionPageRequest(collectionId, lastBinId),
+                                binHandlesReader));
+    }
+
+    @Override
+    public Bin<String> createCollection(@NonNull String collectionName) {
+        return newCall(createCollectionRequest(collectionName), collectionReader);
+    }
+
+    @Override
+    public CompletableFuture<Bin<String>> createCollectionAsync(@NonNull String collectionName) {
+        return newAsyncCall(createCollectionRequest(collectionName), collectionReader);
+    }
+
+    @Override
+    public Bin<String> updateCollection(
+            @NonNull String collectionId, @NonNull String collectionName) {
+        return newCall(updateCollectionRequest(collectionId, collectionName), collectionReader);
+    }
+
+    @Override
+    public CompletableFuture<Bin<String>> updateCollectionAsync(
+            @NonNull String collectionId, @NonNull String collectionName) {
+        return newAsyncCall(
+                updateCollectionRequest(collectionId, collectionName), collectionReader);
+    }
+
+    private TransportRequest readBinRequest(String binId) {
+        String url = String.format("%s/b/%s", baseUrl, binId);
+        return request(READ_BIN, "GET", url).build();
+    }
+
+    private TransportRequest readRecordRequest(String binId) {
+        String url = String.format("%s/b/%s", baseUrl, binId);
+        return request(READ_RECORD, "GET", url).header(HEADER_BIN_META, "false").build();
+    }
+
+    private TransportRequest readBinPathRequest(String binId, String jsonPath) {
+        String url = String.format("%s/b/%s", baseUrl, binId);
+        return request(READ_BIN_PATH, "GET", url).header(HEADER_JSON_PATH, jsonPath).build();
+    }
+
+    private TransportRequest readBinVersionRequest(String binId, int version) {
+        String url = String.format("%s/b/%s/%d", baseUrl, binId, version);
+        return request(READ_BIN_VERSION, "GET", url).build();
+    }
+
+    private TransportRequest readBinVersionCountRequest(String binId) {
+        String url = String.format("%s/b/%s/versions/count", baseUrl, binId);
+        return request(READ_BIN_VERSION_COUNT, "GET", url).build();
+    }
+
+    private <T> TransportRequest createBinRequest(
+            T record, String binName, Boolean isPrivate, String collectionId) {
+        String url = String.format("%s/b", baseUrl);
+
+        TransportRequest.TransportRequestBuilder requestBuilder =
+                request(CREATE_BIN, "POST", url).body(jsonBody(CREATE_BIN, record));
+
+        if (binName != null && !binName.isBlank()) {
+            requestBuilder.header(HEADER_BIN_NAME, binName);
+        }
+
+        if (isPrivate != null) {
+            requestBuilder.header(HEADER_BIN_PRIVATE, isPrivate.toString());
+        }
+
+        if (collectionId != null && !collectionId.isBlank()) {
+            requestBuilder.header(HEADER_COLLECTION_ID, collectionId);
+        }
+
+        return requestBuilder.build();
+    }
+
+    private <T> TransportRequest updateBinRequest(T record, String binId) {
+        String url = String.format("%s/b/%s", baseUrl, binId);
+        return request(UPDATE_BIN, "PUT", url).body(jsonBody(UPDATE_BIN, record)).build();
+    }
+
+    private TransportRequest updateBinRawRequest(String binId, RawBody body) {
+        String url = String.format("%s/b/%s", baseUrl, binId);
+        return request(UPDATE_BIN, "PUT", url).body(body).build();
+    }
+
+    private TransportRequest readCollectionRequest(String collectionId) {
+        String url = String.format("%s/c/%s/bins", baseUrl, collectionId);
+        return request(READ_COLLECTION, "GET", url).build();
+    }
+
+    private TransportRequest readCollectionPageRequest(String collectionId, String lastBinId) {
+        String url = String.format("%s/c/%s/bins/%s", baseUrl, collectionId, lastBinId);
+        return request(READ_COLLECTION, "GET", url).build();
+    }
+
+    private TransportRequest createCollectionRequest(String collectionName) {
+        String url = String.format("%s/c", baseUrl);
+        return request(CREATE_COLLECTION, "POST", url)
+                .header(HEADER_COLLECTION_NAME, collectionName)
+                .build();
+    }
+
+    private TransportRequest updateCollectionRequest(String collectionId, String collectionName) {
+        String url = String.format("%s/c/%s/meta/name", baseUrl, collectionId);
+        return request(UPDATE_COLLECTION, "PUT", url)
+                .header(HEADER_COLLECTION_NAME, collectionName)
+                .build();
+    }
+
+    /** Starts a request for {@code operation} carrying the client's credentials. */
+    private TransportRequest.TransportRequestBuilder request(
+            String operation, String method, String url) {
+        TransportRequest.TransportRequestBuilder requestBuilder =
+                TransportRequest.builder().operation(operation).method(method).url(url);
+
+        if (accessKey != null && !accessKey.isEmpty()) {
+            requestBuilder.header(HEADER_ACCESS_KEY, accessKey);
+        } else {
+            requestBuilder.header(HEADER_MASTER_KEY, masterKey);
+        }
+
+        return requestBuilder;
+    }
+
+    private JsonBody jsonBody(String operation, Object record) {
+        ObjectWriter writer = json.writer(record.getClass());
+        boolean gzip =
+                compressionThreshold >= 0 && JsonBody.exceeds(record, writer, compressionThreshold);
+
+        return new JsonBody(record, writer, gzip, bytesSent(operation));
+    }
+
+    /** Returns the counter of bytes sent by {@code operation}, or {@code null} if not recorded. */
+    private LongConsumer bytesSent(String operation) {
+        return metrics == JsonBinMetrics.NOOP
+                ? null
+                : bytes -> metrics.recordBytesSent(operation, bytes);
+    }
+
+    private <T> T newCall(TransportRequest request, ObjectReader reader) {
+        return newCall(request, stream -> readValue(reader, stream));
+    }
+
+    private <T> T newCall(TransportRequest request, BodyReader<T> reader) {
+        long start = System.nanoTime();
+        int status = -1;
+        Throwable error = null;
+        try (TransportResponse response = transport.execute(request)) {
+            status = response.code();
+            return readResponse(request, response, reader);
+        } catch (IOException exception) {
+            error = exception;
+            throw new JsonBinException(exception.getMessage(), exception);
+        } catch (RuntimeException exception) {
+            error = exception;
+            throw exception;
+        } finally {
+            metrics.recordOperation(
+                    request.getOperation(), System.nanoTime() - start, status, error);
+        }
+    }
+
+    /**
+     * Starts the request on the transport and hands the response over to {@link #executor} for
+     * deserialization. Cancelling the returned future cancels the exchange.
+     */
+    private <T> CompletableFuture<T> newAsyncCall(TransportRequest request, ObjectReader reader) {
+        return newAsyncCall(request, stream -> readValue(reader, stream));
+    }
+
+    private <T> CompletableFuture<T> newAsyncCall(TransportRequest request, BodyReader<T> reader) {
+        long start = System.nanoTime();
+        AtomicInteger status = new AtomicInteger(-1);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<TransportResponse> exchange = transport.executeAsync(request);
+        future.whenComplete(
+                (value, throwable) -> {
+                    if (future.isCancelled()) {
+                        exchange.cancel(true);
+                    }
+                    metrics.recordOperation(
+                            request.getOperation(),
+                            System.nanoTime() - start,
+                            status.get(),
+                            throwable);
+                });
+
+        exchange.whenComplete(
+                (response, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(toJsonBinException(throwable));
+                        return;
+                    }
+
+                    status.set(response.code());
+                    try {
+                        executor.execute(() -> complete(future, request, response, reader));
+                    } catch (RejectedExecutionException exception) {
+                        response.close();
+                        future.completeExceptionally(
+                                new JsonBinException(
+                                        "Response deserialization was rejected", exception));
+                    }
+                });
+
+        return future;
+    }
+
+    private <T> void complete(
+            CompletableFuture<T> future,
+            TransportRequest request,
+            TransportResponse response,
+            BodyReader<T> reader) {
+        try (response) {
+            future.complete(readResponse(request, response, reader));
+        } catch (IOException exception) {
+            future.completeExceptionally(new JsonBinException(exception.getMessage(), exception));
+        } catch (RuntimeException exception) {
+            future.completeExceptionally(exception);
+        }
+    }
+
+    static JsonBinException toJsonBinException(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+
+        if (throwable instanceof JsonBinException) {
+            return (JsonBinException) throwable;
+        }
+
+        return new JsonBinException(throwable.getMessage(), throwable);
+    }
+
+    /**
+     * Streams the response body straight into Jackson instead of buffering it as a {@link String}.
+     */
+    private <T> T readResponse(
+            TransportRequest request, TransportResponse response, BodyReader<T> reader)
+            throws IOException {
+        InputStream stream = response.body();
+        if (stream == null) {
+            throw new JsonBinException("Response body is null");
+        }
+
+        if (response.contentLength() > maxBodySize) {
+            throw new JsonBinException(
+                    String.format(
+                            "Response body of %d bytes exceeds maximum size of %d bytes",
+                            response.contentLength(), maxBodySize));
+        }
+
+        if (maxBodySize != Long.MAX_VALUE) {
+            stream = new BoundedInputStream(stream, maxBodySize);
+        }
+
+        if (metrics == JsonBinMetrics.NOOP) {
+            return readBody(response, stream, reader);
+        }
+
+        CountingInputStream counting = new CountingInputStream(stream);
+        long start = System.nanoTime();
+        try {
+            return readBody(response, counting, reader);
+        } finally {
+            metrics.recordPhase(
+                    request.getOperation(), JsonBinMetrics.Phase.DECODE, System.nanoTime() - start);
+            metrics.recordBytesReceived(request.getOperation(), counting.count());
+        }
+    }
+
+    private <T> T readBody(TransportResponse response, InputStream stream, BodyReader<T> reader)
+            throws IOException {
+        if (!response.isSuccessful()) {
+            Error error = errorReader.readValue(stream);
+            if (response.code() == 429) {
+                throw new JsonBinRateLimitException(
+                        error.getMessage(), RetryAfter.parse(response.header(RetryAfter.HEADER)));
+            }
+            throw new JsonBinException(error.getMessage());
+        }
+
+        return reader.read(stream);
+    }
+
+    /**
+     * Reads a bin or record through {@code cache} (when not {@code null}) and, when enabled,
+     * through the shared in-flight call for {@code key}.
+     */
+    private <R> R read(
+            String key,
+            TieredCache cache,
+            Supplier<TransportRequest> request,
+            Function<JsonUtil.Registry, ObjectReader> readerOf,
+            Consumer<R> onFetch) {
+        byte[] cached =
+                cache == null ? null : cache.getStored(key, () -> refresh(cache, key, request));
+        if (cached != null) {
+            return toCachedValue(cached, readerOf);
+        }
+
+        ObjectReader reader = readerOf.apply(json);
+        if (flights != null) {
+            R value =
+                    flights.execute(
+                                    "b/" + key,
+                                    () ->
+                                            newCall(
+                                                    request.get(),
+                                                    sharedBodyReader(
+                                                            key, cache, generation(cache, key))))
+                            .get(reader);
+            onFetch.accept(value);
+            return value;
+        }
+
+        long generation = generation(cache, key);
+        return newCall(request.get(), readBinReader(key, cache, generation, reader, onFetch));
+    }
+
+    private <R> CompletableFuture<R> readAsync(
+            String key,
+            TieredCache cache,
+            Supplier<TransportRequest> request,
+            Function<JsonUtil.Registry, ObjectReader> readerOf,
+            Consumer<R> onFetch) {
+        byte[] cached =
+                cache == null ? null : cache.getStored(key, () -> refresh(cache, key, request));
+        if (cached != null) {
+            return CompletableFuture.supplyAsync(() -> toCachedValue(cached, readerOf), executor);
+        }
+
+        ObjectReader reader = readerOf.apply(json);
+        if (flights != null) {
+            return flights.executeAsync(
+                            "b/" + key,
+                            () ->
+                                    newAsyncCall(
+                                            request.get(),
+                                            sharedBodyReader(key, cache, generation(cache, key))))
+                    .thenApply(
+                            body -> {
+                                R value = body.get(reader);
+                                onFetch.accept(value);
+                                return value;
+                            });
+        }
+
+        long generation = generation(cache, key);
+        return newAsyncCall(request.get(), readBinReader(key, cache, generation, reader, onFetch));
+    }
+
+    /**
+     * Deserializes the bin's body, buffering it first when it has to be cached, and passes the
+     * result to {@code onFetch}. The body is only cached if {@code key} is still at {@code
+     * generation}, read before the call was issued.
+     */
+    private <R> BodyReader<R> readBinReader(
+            String key,
+            TieredCache cache,
+            long generation,
+            ObjectReader reader,
+            Consumer<R> onFetch) {
+        return stream -> {
+            R value;
+            if (cache == null) {
+                value = readValue(reader, stream);
+            } else {
+                byte[] body = stream.readAllBytes();
+                cache.put(key, body, generation);
+                value = reader.readValue(body);
+            }
+            onFetch.accept(value);
+            return value;
+        };
+    }
+
+    /**
+     * Records the hash of a freshly fetched latest record, if write deduplication is on. The record
+     * of a {@link LazyBin} is hashed as received, so it is not bound.
+     */
+    private <T> Consumer<Bin<T>> rememberRead(String binId) {
+        if (deduplicator == null) {
+            return bin -> {};
+        }
+
+        Consumer<T> rememberRecord = rememberRecord(binId);
+        return bin -> {
+            if (bin instanceof LazyBin<T> lazyBin) {
+                byte[] hash = deduplicator.hash(lazyBin, json.writer(Object.class));
+                if (hash != null) {
+                    deduplicator.remember(binId, hash);
+                }
+            } else {
+                rememberRecord.accept(bin.getRecord());
+            }
+        };
+    }
+
+    private <T> Consumer<T> rememberRecord(String binId) {
+        if (deduplicator == null) {
+            return record -> {};
+        }
+
+        return record -> {
+            if (record != null) {
+                deduplicator.remember(
+                        binId, deduplicator.hash(record, json.writer(record.getClass())));
+            }
+        };
+    }
+
+    /**
+     * Buffers the bin's body, caching it when enabled and still at {@code generation}, for callers
+     * sharing one call.
+     */
+    private BodyReader<SharedBody> sharedBodyReader(
+            String key, TieredCache cache, long generation) {
+        return stream -> {
+            byte[] body = stream.readAllBytes();
+            if (cache != null) {
+                cache.put(key, body, generation);
+            }
+            return new SharedBody(body);
+        };
+    }
+
+    /**
+     * Streams the node at {@code pointer} out of a bin's body, caching the body when enabled and
+     * the key was not invalidated while the call was in flight.
+     */
+    private <T> BodyReader<T> readAtReader(String key, JsonPointer pointer, ObjectReader reader) {
+        long generation = generation(cache, key);
+        return stream -> {
+            if (cache == null) {
+                return JsonPointerReader.read(stream, pointer, reader);
+            }
+
+            byte[] body = stream.readAllBytes();
+            cache.put(key, body, generation);
+            return JsonPointerReader.read(body, pointer, reader);
+        };
+    }
+
+    private <T> T readAt(byte[] body, JsonPointer pointer, ObjectReader reader) {
+        try {
+            return JsonPointerReader.read(body, pointer, reader);
+        } catch (IOException exception) {
+            throw new JsonBinException(exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Resolves a pointer relative to the record against the response body, which only wraps the
+     * record when metadata is fetched.
+     */
+    private JsonPointer recordPointer(String jsonPointer) {
+        if (!jsonPointer.isEmpty() && !jsonPointer.startsWith("/")) {
+            throw new IllegalArgumentException("jsonPointer must be empty or start with '/'.");
+        }
+
+        return JsonPointer.compile(binMeta ? "/record" + jsonPointer : jsonPointer);
+    }
+
+    /** Requests the latest record, with or without metadata as configured. */
+    private TransportRequest latestRequest(String binId) {
+        return binMeta ? readBinRequest(binId) : readRecordRequest(binId);
+    }
+
+    /** Returns the cache key of a bin's metadata-free body. */
+    private static String recordKey(String binId) {
+        return binId + "/record";
+    }
+
+    private String versionKey(String binId, int version) {
+        if (version < 0) {
+            throw new IllegalArgumentException("version must not be negative.");
+        }
+
+        return binId + "/" + version;
+    }
+
+    private int versionCount(Bin<Object> bin) {
+        if (bin.getMetadata() == null || bin.getMetadata().getVersionCount() == null) {
+            throw new JsonBinException("Response does not contain a version count");
+        }
+
+        return bin.getMetadata().getVersionCount();
+    }
+
+    private <T> BodyReader<Bin<T>> updateBinReader(String binId, byte[] hash, ObjectReader reader) {
+        return stream -> {
+            Bin<T> bin = readValue(reader, stream);
+            invalidate(binId);
+            if (hash != null) {
+                deduplicator.remember(binId, hash);
+            }
+            return bin;
+        };
+    }
+
+    /**
+     * Buffers a bin's body as-is, caching it when enabled and the key was not invalidated while the
+     * call was in flight.
+     */
+    private BodyReader<ByteBuffer> rawReader(String key) {
+        long generation = generation(cache, key);
+        return stream -> {
+            byte[] body = stream.readAllBytes();
+            if (cache != null) {
+                cache.put(key, body, generation);
+            }
+            return ByteBuffer.wrap(body).asReadOnlyBuffer();
+        };
+    }
+
+    /**
+     * Buffers the response to a raw write as-is. The record written is not known, so write
+     * deduplication forgets the bin, both now and once the write has landed.
+     */
+    private BodyReader<ByteBuffer> updateBinRawReader(String binId) {
+        if (deduplicator != null) {
+            deduplicator.forget(binId);
+        }
+
+        return stream -> {
+            byte[] body = stream.readAllBytes();
+            invalidate(binId);
+            if (deduplicator != null) {
+                deduplicator.forget(binId);
+            }
+            return ByteBuffer.wrap(body).asReadOnlyBuffer();
+        };
+    }
+
+    /**
+     * Returns the generation of {@code key} in {@code cache}, to read before a fetch whose body is
+     * cached, or 0 when there is no cache.
+     */
+    private static long generation(TieredCache cache, String key) {
+        return cache == null ? 0 : cache.generation(key);
+    }
+
+    /** Looks up a body of the latest-record cache, which {@code request} refreshes. */
+    private byte[] cached(String key, Supplier<TransportRequest> request) {
+        return cache == null ? null : cache.get(key, () -> refresh(cache, key, request));
+    }
+
+    /**
+     * Refetches a body that was served from disk, or is about to expire, in the background, sharing
+     * the call with concurrent reads when they are coalesced. The body is not cached if the key is
+     * invalidated while the call is in flight, and a failed refetch leaves the current body to be
+     * refreshed by a later read.
+     */
+    private void refresh(TieredCache cache, String key, Supplier<TransportRequest> request) {
+        long generation = cache.generation(key);
+        refreshFlights
+                .executeAsync(
+                        "b/" + key,
+                        () ->
+                                newAsyncCall(
+                                        request.get(),
+                                        stream -> {
+                                            byte[] body = stream.readAllBytes();
+                                            cache.put(key, body, generation);
+                                            return new SharedBody(body);
+                                        }))
+                .whenComplete(
+                        (body, error) -> {
+                            if (error != null) {
+                                cache.refreshFailed(key);
+                            }
+                        });
+    }
+
+    /** Returns the reader of {@code Bin<recordType>}, lazy when enabled. */
+    private ObjectReader binReader(Class<?> recordType) {
+        return binReaderOf(recordType).apply(json);
+    }
+
+    /** Picks the reader of {@code Bin<recordType>} out of a registry, lazy when enabled. */
+    private Function<JsonUtil.Registry, ObjectReader> binReaderOf(Class<?> recordType) {
+        return registry ->
+                lazyRecords ? registry.lazyBinReader(recordType) : registry.binReader(recordType);
+    }
+
+    /** Drops the cached bodies of a bin that was written to. */
+    private void invalidate(String binId) {
+        if (cache != null) {
+            cache.invalidate(binId);
+            cache.invalidate(recordKey(binId));
+        }
+    }
+
+    /**
+     * Wraps a record in a {@link Bin} whose metadata only holds the bin id, standing in for a
+     * response that did not carry metadata or for a write that was skipped as a no-op.
+     */
+    private <T> Bin<T> localBin(T record, String binId) {
+        Bin<T> bin = new Bin<>();
+        bin.setRecord(record);
+        return withLocalMetadata(bin, binId);
+    }
+
+    /** Gives a bin read without metadata metadata that only holds the bin id. */
+    private static <T> Bin<T> withLocalMetadata(Bin<T> bin, String binId) {
+        Metadata metadata = new Metadata();
+        metadata.setId(binId);
+
+        bin.setMetadata(metadata);
+        return bin;
+    }
+
+    /**
+     * Reads a response body. {@link LazyBin}s are read from the buffered body, so that they can
+     * keep the bytes of their record rather than a copy of its tokens.
+     */
+    private static <T> T readValue(ObjectReader reader, InputStream stream) throws IOException {
+        if (reader.getValueType().getRawClass() == LazyBin.class) {
+            return reader.readValue(stream.readAllBytes());
+        }
+        return reader.readValue(stream);
+    }
+
+    /**
+     * Binds an in-memory cache entry as stored, with the reader {@code readerOf} picks for its
+     * format, without converting it back to JSON first.
+     */
+    private <T> T toCachedValue(byte[] stored, Function<JsonUtil.Registry, ObjectReader> readerOf) {
+        if (cacheCodec == null) {
+            return toValue(stored, readerOf.apply(json));
+        }
+
+        try {
+            return cacheCodec.read(readerOf.apply(cacheJson), stored);
+        } catch (IOException exception) {
+            throw new JsonBinException(exception.getMessage(), exception);
+        }
+    }
+
+    private <T> T toValue(byte[] body, ObjectReader reader) {
+        try {
+            return reader.readValue(body);
+        } catch (IOException exception) {
+            throw new JsonBinException(exception.getMessage(), exception);
+        }
+    }
+
+    /** Consumes a successful response body. */
+    @FunctionalInterface
+    private interface BodyReader<T> {
+
+        T read(InputStream body) throws IOException;
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrency limit tuned by additive-increase / multiplicative-decrease.
+ *
+ * <p>Every response is a sample. A drop, that is a {@code 429}, a {@code 5xx} or a request that
+ * failed or timed out without a response, halves the limit. A latency more than twice the baseline
+ * shrinks it by 10%, because queueing on the server shows up as latency before it shows up as
+ * errors. Any other response raises the limit by {@code 1 / limit}, so it grows by about one per
+ * round trip. The baseline follows the lowest observed latency and drifts up slowly, so it adapts
+ * when the network itself gets slower.
+ */
+class AdaptiveConcurrencyLimit {
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final int maxLimit;
+
+    private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+    private double limit;
+
+    private int inFlight;
+
+    private double baselineNanos = Double.NaN;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int maxLimit) {
+        if (initialLimit <= 0 || maxLimit < initialLimit) {
+            throw new IllegalArgumentException(
+                    "initialLimit must be positive and not greater than maxLimit.");
+        }
+
+        this.limit = initialLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /** Returns a future completing with a permit once fewer than {@code limit} are in use. */
+    CompletableFuture<Permit> acquire() {
+        synchronized (waiters) {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit());
+            }
+
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    /** Returns the current limit. */
+    int limit() {
+        synchronized (waiters) {
+            return (int) limit;
+        }
+    }
+
+    private void onSample(long latencyNanos, boolean dropped) {
+        List<CompletableFuture<Permit>> granted;
+        synchronized (waiters) {
+            if (dropped) {
+                limit = Math.max(1, limit / 2);
+            } else {
+                if (Double.isNaN(baselineNanos) || latencyNanos < baselineNanos) {
+                    baselineNanos = latencyNanos;
+                } else {
+                    baselineNanos += (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+                }
+
+                if (latencyNanos > baselineNanos * LATENCY_TOLERANCE) {
+                    limit = Math.max(1, limit * 0.9);
+                } else {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            granted = grant();
+        }
+        complete(granted);
+    }
+
+    private void release() {
+        List<CompletableFuture<Permit>> granted;
+        synchronized (waiters) {
+            inFlight--;
+            granted = grant();
+        }
+        complete(granted);
+    }
+
+    /** Must be called while holding the {@code waiters} lock. */
+    private List<CompletableFuture<Permit>> grant() {
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            CompletableFuture<Permit> waiter = waiters.poll();
+            if (!waiter.isDone()) {
+                inFlight++;
+                granted.add(waiter);
+            }
+        }
+        return granted;
+    }
+
+    /** Completes granted waiters outside the lock; a waiter cancelled meanwhile gives it back. */
+    private void complete(List<CompletableFuture<Permit>> granted) {
+        for (CompletableFuture<Permit> waiter : granted) {
+            Permit permit = new Permit();
+            if (!waiter.complete(permit)) {
+                permit.release();
+            }
+        }
+    }
+
+    /** A slot in the limit; report one sample with it and release it exactly once. */
+    class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void onSuccess(long latencyNanos) {
+            onSample(latencyNanos, false);
+        }
+
+        void onRateLimited() {
+            onSample(0, true);
+        }
+
+        /** Reports a server error, or a request that failed or timed out without a response. */
+        void onDropped() {
+            onSample(0, true);
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveConcurrencyLimit.this.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import io.github.odunlamizo.jsonbin.BinWatch;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Polls watched bins from one shared thread and hands each watch the bodies that changed.
+ *
+ * <p>The thread ticks eight times per interval. Each tick polls every bin that is due, all at once
+ * and once per bin however many watches it has, and schedules the bin's next poll one interval
+ * later, plus or minus a random share of the jitter, so that bins watched together drift apart. A
+ * bin is not polled again while its previous poll is in flight. A watch is handed a body only when
+ * its SHA-256 hash differs from that of the last body the watch decoded, so unchanged bodies are
+ * never decoded. A body that fails to decode leaves the hash as it was, so it is tried again on the
+ * next poll. The thread is started with the first watch and stopped with the last one.
+ */
+final class BinWatcher {
+
+    private static final int TICKS_PER_INTERVAL = 8;
+
+    private final long intervalNanos;
+
+    private final long jitterNanos;
+
+    private final Function<String, CompletableFuture<byte[]>> poll;
+
+    private final LongSupplier ticker;
+
+    private final Map<String, WatchedBin> bins = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> ticks;
+
+    /**
+     * @param poll fetches the current body of a bin, bypassing any cache
+     */
+    BinWatcher(
+            long intervalNanos,
+            long jitterNanos,
+            Function<String, CompletableFuture<byte[]>> poll,
+            LongSupplier ticker) {
+        this.intervalNanos = intervalNanos;
+        this.jitterNanos = jitterNanos;
+        this.poll = poll;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Starts watching {@code binId}, polling it on the next tick. Changed bodies are decoded with
+     * {@code decoder} and then handed to {@code listener}.
+     */
+    synchronized <T> BinWatch watch(
+            String binId, Function<byte[], T> decoder, Consumer<T> listener) {
+        Watch<T> watch = new Watch<>(binId, decoder, listener);
+        WatchedBin bin = bins.computeIfAbsent(binId, WatchedBin::new);
+        bin.watches.add(watch);
+        bin.nextPollAt = ticker.getAsLong();
+
+        if (ticks == null) {
+            if (scheduler == null) {
+                scheduler =
+                        Executors.newSingleThreadScheduledExecutor(
+                                runnable -> {
+                                    Thread thread = new Thread(runnable, "jsonbin-watch");
+                                    thread.setDaemon(true);
+                                    return thread;
+                                });
+            }
+            long tickNanos = Math.max(1, intervalNanos / TICKS_PER_INTERVAL);
+            ticks =
+                    scheduler.scheduleWithFixedDelay(
+                            this::tick, 0, tickNanos, TimeUnit.NANOSECONDS);
+        }
+        return watch;
+    }
+
+    /** Polls every bin that is due. */
+    private void tick() {
+        long now = ticker.getAsLong();
+        for (WatchedBin bin : bins.values()) {
+            if (bin.polling || now - bin.nextPollAt < 0) {
+                continue;
+            }
+
+            bin.polling = true;
+            CompletableFuture<byte[]> body;
+            try {
+                body = poll.apply(bin.binId);
+            } catch (RuntimeException exception) {
+                body = CompletableFuture.failedFuture(exception);
+            }
+            body.whenComplete(
+                    (value, error) -> {
+                        if (value != null) {
+                            bin.deliver(value);
+                        }
+                        // A watch that joined during the poll is served on the next tick
+                        bin.nextPollAt = ticker.getAsLong() + (bin.hasNewWatch() ? 0 : nextDelay());
+                        bin.polling = false;
+                    });
+        }
+    }
+
+    private long nextDelay() {
+        if (jitterNanos == 0) {
+            return intervalNanos;
+        }
+        return intervalNanos + ThreadLocalRandom.current().nextLong(-jitterNanos, jitterNanos + 1);
+    }
+
+    private synchronized void unwatch(Watch<?> watch) {
+        WatchedBin bin = bins.get(watch.binId);
+        if (bin == null || !bin.watches.remove(watch)) {
+            return;
+        }
+
+        if (bin.watches.isEmpty()) {
+            bins.remove(watch.binId);
+        }
+        if (bins.isEmpty() && ticks != null) {
+            ticks.cancel(false);
+            ticks = null;
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    private static byte[] hash(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    private final class WatchedBin {
+
+        private final String binId;
+
+        private final List<Watch<?>> watches = new CopyOnWriteArrayList<>();
+
+        private volatile long nextPollAt = ticker.getAsLong();
+
+        private volatile boolean polling;
+
+        private WatchedBin(String binId) {
+            this.binId = binId;
+        }
+
+        private boolean hasNewWatch() {
+            for (Watch<?> watch : watches) {
+                if (!watch.served) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Hands {@code body} to the watches that have not seen it. One poll runs at a time. */
+        private void deliver(byte[] body) {
+            byte[] hash = hash(body);
+            List<Watch<?>> changed = new ArrayList<>();
+            for (Watch<?> watch : watches) {
+                watch.served = true;
+                if (!Arrays.equals(watch.hash, hash)) {
+                    changed.add(watch);
+                }
+            }
+
+            for (Watch<?> watch : changed) {
+                if (!watch.closed) {
+                    watch.deliver(body, hash);
+                }
+            }
+        }
+    }
+
+    private final class Watch<T> implements BinWatch {
+
+        private final String binId;
+
+        private final Function<byte[], T> decoder;
+
+        private final Consumer<T> listener;
+
+        /** The hash of the last body decoded, or {@code null} if none was. */
+        private volatile byte[] hash;
+
+        /** Whether a poll finished since the watch started, whether or not it decoded anything. */
+        private volatile boolean served;
+
+        private volatile boolean closed;
+
+        private Watch(String binId, Function<byte[], T> decoder, Consumer<T> listener) {
+            this.binId = binId;
+            this.decoder = decoder;
+            this.listener = listener;
+        }
+
+        /** Decodes {@code body}, remembers its hash only once it decoded, and notifies. */
+        private void deliver(byte[] body, byte[] bodyHash) {
+            T value;
+            try {
+                value = decoder.apply(body);
+            } catch (RuntimeException ignored) {
+                // Keep the old hash, so the body is decoded again on the next poll
+                return;
+            }
+
+            hash = bodyHash;
+            try {
+                listener.accept(value);
+            } catch (RuntimeException ignored) {
+                // A failing listener must not stop the other watches nor the next poll
+            }
+        }
+
+        @Override
+        public String getBinId() {
+            return binId;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            unwatch(this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Fails with an {@link IOException} as soon as more than {@code maxBytes} have been read. */
+class BoundedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+
+    private long count;
+
+    BoundedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = super.read();
+        if (read != -1) {
+            count(1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long read) throws IOException {
+        count += read;
+        if (count > maxBytes) {
+            throw new IOException(
+                    String.format("Response body exceeds maximum size of %d bytes", maxBytes));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Walks every page of a collection listing, fetching the next page while the current one is
+ * consumed.
+ *
+ * <p>The first page is requested on the first call to {@link #hasNext()}. When iteration moves onto
+ * a page, the page after it is requested, starting after the page's last bin, so at most two pages
+ * are held at any time. The walk ends at the first empty page. {@link #close()} cancels the
+ * prefetch of a walk that is abandoned early.
+ */
+class CollectionPages implements Iterator<BinHandle>, AutoCloseable {
+
+    private final Function<String, CompletableFuture<List<BinHandle>>> fetch;
+
+    private Iterator<BinHandle> page = Collections.emptyIterator();
+
+    private CompletableFuture<List<BinHandle>> next;
+
+    private boolean started;
+
+    /**
+     * @param fetch requests the page after the given bin id, or the first page when given {@code
+     *     null}
+     */
+    CollectionPages(Function<String, CompletableFuture<List<BinHandle>>> fetch) {
+        this.fetch = fetch;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            next = fetch.apply(null);
+        }
+
+        while (!page.hasNext()) {
+            if (next == null) {
+                return false;
+            }
+
+            List<BinHandle> handles = await(next);
+            if (handles.isEmpty()) {
+                next = null;
+                return false;
+            }
+
+            next = fetch.apply(handles.get(handles.size() - 1).getId());
+            page = handles.iterator();
+        }
+
+        return true;
+    }
+
+    @Override
+    public BinHandle next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return page.next();
+    }
+
+    /** Stops the walk, cancelling the page being prefetched. */
+    @Override
+    public void close() {
+        started = true;
+        page = Collections.emptyIterator();
+        if (next != null) {
+            next.cancel(true);
+            next = null;
+        }
+    }
+
+    private List<BinHandle> await(CompletableFuture<List<BinHandle>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            next = null;
+            if (exception.getCause() instanceof JsonBinException) {
+                throw (JsonBinException) exception.getCause();
+            }
+            throw new JsonBinException(exception.getMessage(), exception.getCause());
+        }
+    }
+}
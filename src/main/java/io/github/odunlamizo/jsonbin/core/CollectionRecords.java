@@ -0,0 +1,110 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import io.github.odunlamizo.jsonbin.model.CollectionRecord;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Reads the record of every bin a collection listing yields, keeping up to {@code parallelism}
+ * reads in flight and handing out results in the order they complete.
+ *
+ * <p>Reads are started as the consumer asks for results, so a slow consumer holds back new reads
+ * and at most {@code parallelism} results are ever buffered. A failed read is handed out as a
+ * failed {@link CollectionRecord} and does not affect the others; a failed listing page is thrown.
+ */
+class CollectionRecords<T> implements Iterator<CollectionRecord<T>>, AutoCloseable {
+
+    private final Iterator<BinHandle> handles;
+
+    private final Function<String, CompletableFuture<T>> read;
+
+    private final int parallelism;
+
+    private final BlockingQueue<CollectionRecord<T>> completed = new LinkedBlockingQueue<>();
+
+    private final Set<CompletableFuture<T>> pending = ConcurrentHashMap.newKeySet();
+
+    private int inFlight;
+
+    private CollectionRecord<T> ready;
+
+    /**
+     * @param handles the collection listing
+     * @param read starts reading the record of the bin with the given id
+     * @param parallelism the maximum number of reads in flight
+     */
+    CollectionRecords(
+            Iterator<BinHandle> handles,
+            Function<String, CompletableFuture<T>> read,
+            int parallelism) {
+        this.handles = handles;
+        this.read = read;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (ready != null) {
+            return true;
+        }
+
+        while (inFlight < parallelism && handles.hasNext()) {
+            start(handles.next());
+        }
+
+        if (inFlight == 0) {
+            return false;
+        }
+
+        try {
+            ready = completed.take();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new JsonBinException("Interrupted while reading collection records", exception);
+        }
+        inFlight--;
+        return true;
+    }
+
+    @Override
+    public CollectionRecord<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        CollectionRecord<T> next = ready;
+        ready = null;
+        return next;
+    }
+
+    /** Cancels the reads in flight. */
+    @Override
+    public void close() {
+        for (CompletableFuture<T> future : pending) {
+            future.cancel(true);
+        }
+    }
+
+    private void start(BinHandle handle) {
+        CompletableFuture<T> future = read.apply(handle.getId());
+        pending.add(future);
+        inFlight++;
+        future.whenComplete(
+                (record, throwable) -> {
+                    pending.remove(future);
+                    completed.add(
+                            throwable == null
+                                    ? CollectionRecord.success(handle, record)
+                                    : CollectionRecord.failure(
+                                            handle, AbstractJsonBin.toJsonBinException(throwable)));
+                });
+    }
+}
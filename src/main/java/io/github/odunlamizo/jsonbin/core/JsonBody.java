@@ -0,0 +1,165 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.odunlamizo.jsonbin.transport.TransportBody;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request body that lets Jackson write the record straight into the transport's output stream.
+ *
+ * <p>Nothing is serialized up front, so no intermediate {@link String} or byte array is built. The
+ * record is serialized again on every {@link #writeTo(OutputStream)}, which keeps the body
+ * replayable for retries and redirects. Gzip bodies are compressed on the fly, as Jackson writes.
+ */
+class JsonBody implements TransportBody {
+
+    private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+
+    private final Object value;
+
+    private final ObjectWriter writer;
+
+    private final boolean gzip;
+
+    private final LongConsumer onWritten;
+
+    /**
+     * @param gzip whether to compress the body
+     * @param onWritten receives the number of bytes of each write, after compression, or {@code
+     *     null} if they need not be counted
+     */
+    JsonBody(Object value, ObjectWriter writer, boolean gzip, LongConsumer onWritten) {
+        this.value = value;
+        this.writer = writer;
+        this.gzip = gzip;
+        this.onWritten = onWritten;
+    }
+
+    /**
+     * Returns whether {@code value} serializes to more than {@code threshold} bytes. Serialization
+     * stops as soon as the threshold is crossed, so a large record costs at most {@code threshold}
+     * bytes of work here.
+     */
+    static boolean exceeds(Object value, ObjectWriter writer, long threshold) {
+        try {
+            writer.writeValue(new ThresholdOutputStream(threshold), value);
+            return false;
+        } catch (IOException exception) {
+            for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+                if (cause instanceof ThresholdExceededException) {
+                    return true;
+                }
+            }
+            // The real write reports the failure
+            return false;
+        }
+    }
+
+    @Override
+    public String contentType() {
+        return "application/json";
+    }
+
+    @Override
+    public String contentEncoding() {
+        return gzip ? "gzip" : null;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        if (!gzip && onWritten == null) {
+            write(out);
+            return;
+        }
+
+        CountingOutputStream counting = new CountingOutputStream(out);
+        if (gzip) {
+            // Closing the gzip stream frees its deflater; the counting stream keeps out open
+            try (GZIPOutputStream compressed = new GZIPOutputStream(counting, GZIP_BUFFER_SIZE)) {
+                write(compressed);
+            }
+        } else {
+            write(counting);
+        }
+
+        if (onWritten != null) {
+            onWritten.accept(counting.count);
+        }
+    }
+
+    private void write(OutputStream out) throws IOException {
+        try {
+            writer.writeValue(out, value);
+        } catch (JsonProcessingException exception) {
+            throw new IOException("Failed to serialize record", exception);
+        }
+    }
+
+    /** Counts bytes on their way to the transport; closing it leaves the target open. */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /** Discards bytes, failing once more than {@code threshold} have been written. */
+    private static final class ThresholdOutputStream extends OutputStream {
+
+        private final long threshold;
+
+        private long count;
+
+        private ThresholdOutputStream(long threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(null, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count += len;
+            if (count > threshold) {
+                throw new ThresholdExceededException();
+            }
+        }
+    }
+
+    /** Aborts the size probe; thrown once per large record, so it skips the stack trace. */
+    private static final class ThresholdExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.transport.TransportBody;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongConsumer;
+
+/**
+ * Request body of JSON bytes supplied by the caller, copied to the transport's output stream as-is,
+ * or read by the transport from a stream over the same bytes.
+ *
+ * <p>Bodies read from a {@link ByteBuffer} or a file are replayable. A body read from an {@link
+ * InputStream} can only be written once, and reports itself as {@linkplain #isOneShot() one-shot}.
+ */
+class RawBody implements TransportBody {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final Source source;
+
+    private final Opener opener;
+
+    private final long length;
+
+    private final boolean oneShot;
+
+    private final LongConsumer onWritten;
+
+    private boolean written;
+
+    private RawBody(
+            Source source, Opener opener, long length, boolean oneShot, LongConsumer onWritten) {
+        this.source = source;
+        this.opener = opener;
+        this.length = length;
+        this.oneShot = oneShot;
+        this.onWritten = onWritten;
+    }
+
+    /**
+     * Sends the bytes between {@code json}'s position and limit. The buffer's position is left
+     * untouched, and its contents must not change until the call completes.
+     *
+     * @param onWritten receives the number of bytes of each write, or {@code null}
+     */
+    static RawBody of(ByteBuffer json, LongConsumer onWritten) {
+        ByteBuffer bytes = json.slice();
+        return new RawBody(
+                out -> write(bytes.duplicate(), out),
+                () -> new ByteBufferBackedInputStream(bytes.duplicate()),
+                bytes.remaining(),
+                false,
+                onWritten);
+    }
+
+    /**
+     * Sends the contents of the file at {@code json}.
+     *
+     * @param onWritten receives the number of bytes of each write, or {@code null}
+     * @throws JsonBinException if the file's size cannot be read
+     */
+    static RawBody of(Path json, LongConsumer onWritten) {
+        long length;
+        try {
+            length = Files.size(json);
+        } catch (IOException exception) {
+            throw new JsonBinException(exception.getMessage(), exception);
+        }
+        return new RawBody(
+                out -> Files.copy(json, out),
+                () -> Files.newInputStream(json),
+                length,
+                false,
+                onWritten);
+    }
+
+    /**
+     * Sends what remains of {@code json}, which is read to its end but not closed.
+     *
+     * @param onWritten receives the number of bytes written, or {@code null}
+     */
+    static RawBody of(InputStream json, LongConsumer onWritten) {
+        return new RawBody(
+                json::transferTo,
+                () ->
+                        new FilterInputStream(json) {
+                            @Override
+                            public void close() {
+                                // The caller owns the stream
+                            }
+                        },
+                -1,
+                true,
+                onWritten);
+    }
+
+    @Override
+    public String contentType() {
+        return "application/json";
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return oneShot;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        claim();
+        long count = source.writeTo(out);
+        if (onWritten != null) {
+            onWritten.accept(count);
+        }
+    }
+
+    /**
+     * Opens the bytes for reading; the count is reported once the stream has been read to its end.
+     */
+    @Override
+    public InputStream openStream() throws IOException {
+        claim();
+        InputStream in = opener.open();
+        return onWritten == null ? in : new ReportingInputStream(in, onWritten);
+    }
+
+    private void claim() throws IOException {
+        if (oneShot) {
+            synchronized (this) {
+                if (written) {
+                    throw new IOException("One-shot request body has already been sent");
+                }
+                written = true;
+            }
+        }
+    }
+
+    private static long write(ByteBuffer bytes, OutputStream out) throws IOException {
+        int count = bytes.remaining();
+        if (bytes.hasArray()) {
+            out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), count);
+            return count;
+        }
+
+        // Direct and read-only buffers have no accessible array
+        byte[] chunk = new byte[Math.min(count, BUFFER_SIZE)];
+        while (bytes.hasRemaining()) {
+            int length = Math.min(chunk.length, bytes.remaining());
+            bytes.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+        return count;
+    }
+
+    /** Writes the body's bytes and returns how many were written. */
+    @FunctionalInterface
+    private interface Source {
+
+        long writeTo(OutputStream out) throws IOException;
+    }
+
+    /** Opens a stream over the body's bytes. */
+    @FunctionalInterface
+    private interface Opener {
+
+        InputStream open() throws IOException;
+    }
+
+    /** Reports the count of bytes read once the stream reaches its end. */
+    private static final class ReportingInputStream extends CountingInputStream {
+
+        private final LongConsumer onRead;
+
+        private boolean reported;
+
+        private ReportingInputStream(InputStream in, LongConsumer onRead) {
+            super(in);
+            this.onRead = onRead;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return report(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return report(super.read(b, off, len));
+        }
+
+        private int report(int read) {
+            if (read < 0 && !reported) {
+                reported = true;
+                onRead.accept(count());
+            }
+            return read;
+        }
+    }
+}
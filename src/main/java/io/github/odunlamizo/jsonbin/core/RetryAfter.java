@@ -0,0 +1,36 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/** Parses the {@code Retry-After} header, which holds either delay seconds or an HTTP date. */
+final class RetryAfter {
+
+    static final String HEADER = "Retry-After";
+
+    private RetryAfter() {}
+
+    /** Returns the requested delay, or {@code null} if the header is absent or malformed. */
+    static Duration parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+            // Not delay-seconds; try the HTTP-date form
+        }
+
+        try {
+            ZonedDateTime date =
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(date.getZone()), date);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Raw response body shared by coalesced callers. It is deserialized at most once per target type
+ * and the result is handed to every caller asking for that type.
+ */
+class SharedBody {
+
+    private final byte[] bytes;
+
+    private final ConcurrentMap<JavaType, Object> values = new ConcurrentHashMap<>();
+
+    SharedBody(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(ObjectReader reader) {
+        return (T) values.computeIfAbsent(reader.getValueType(), type -> toValue(reader));
+    }
+
+    private Object toValue(ObjectReader reader) {
+        try {
+            return reader.readValue(bytes);
+        } catch (IOException exception) {
+            throw new JsonBinException(exception.getMessage(), exception);
+        }
+    }
+}
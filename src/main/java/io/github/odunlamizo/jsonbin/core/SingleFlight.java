@@ -0,0 +1,85 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single in-flight call.
+ *
+ * <p>The first caller for a key performs the call; callers arriving while it is in flight wait for
+ * and share its outcome, whether a value or an exception. Once the call completes the key is
+ * released, so later callers start a new call.
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /** Runs {@code call} on the current thread, unless a call for {@code key} is in flight. */
+    V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = call.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error exception) {
+            flight.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Starts {@code call}, unless a call for {@code key} is in flight. Every caller receives its
+     * own dependent future, so cancelling it detaches that caller without cancelling the shared
+     * call.
+     */
+    CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.thenApply(value -> value);
+        }
+
+        try {
+            call.get()
+                    .whenComplete(
+                            (value, throwable) -> {
+                                inFlight.remove(key, flight);
+                                if (throwable != null) {
+                                    flight.completeExceptionally(throwable);
+                                } else {
+                                    flight.complete(value);
+                                }
+                            });
+        } catch (RuntimeException exception) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(exception);
+        }
+
+        return flight.thenApply(value -> value);
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
+    }
+}
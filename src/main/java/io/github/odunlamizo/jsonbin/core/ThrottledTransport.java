@@ -0,0 +1,371 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import io.github.odunlamizo.jsonbin.transport.Transport;
+import io.github.odunlamizo.jsonbin.transport.TransportRequest;
+import io.github.odunlamizo.jsonbin.transport.TransportResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Transport decorator that keeps a client inside JSONBin.io's quotas.
+ *
+ * <p>Requests first take a token from an optional {@link TokenBucket}, then a slot from an optional
+ * {@link AdaptiveConcurrencyLimit}. The slot is held until the response is closed, so it covers
+ * reading the body too. Server errors and failed requests are reported to the limit as drops. A
+ * {@code 429} response is retried up to {@code maxRetries} times. The delay comes from its {@code
+ * Retry-After} header, or from exponential backoff when there is none, capped at {@code
+ * maxRetryDelay}. When no retries are left, or the server asks to wait longer than {@code
+ * maxRetryDelay}, the {@code 429} response is returned as is.
+ */
+class ThrottledTransport implements Transport {
+
+    private static final long INITIAL_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final int SERVER_ERROR = 500;
+
+    private final Transport delegate;
+
+    private final TokenBucket rateLimiter;
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+
+    private final int maxRetries;
+
+    private final long maxRetryDelayNanos;
+
+    ThrottledTransport(
+            Transport delegate,
+            TokenBucket rateLimiter,
+            AdaptiveConcurrencyLimit concurrencyLimit,
+            int maxRetries,
+            Duration maxRetryDelay) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimit = concurrencyLimit;
+        this.maxRetries = maxRetries;
+        this.maxRetryDelayNanos = maxRetryDelay.toNanos();
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            if (rateLimiter != null) {
+                sleep(rateLimiter.reserve());
+            }
+
+            AdaptiveConcurrencyLimit.Permit permit = acquire();
+            long start = System.nanoTime();
+            TransportResponse response;
+            try {
+                response = delegate.execute(request);
+            } catch (IOException exception) {
+                drop(permit);
+                throw exception;
+            } catch (RuntimeException exception) {
+                release(permit);
+                throw exception;
+            }
+
+            if (!retry(request, response, permit, System.nanoTime() - start, attempt)) {
+                return new PermitResponse(response, permit);
+            }
+
+            long delay = retryDelay(response, attempt);
+            response.close();
+            sleep(delay);
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> current = new AtomicReference<>();
+        result.whenComplete(
+                (response, throwable) -> {
+                    CompletableFuture<?> stage = current.get();
+                    if (result.isCancelled() && stage != null) {
+                        stage.cancel(true);
+                    }
+                });
+
+        attempt(request, 0, result, current);
+        return result;
+    }
+
+    private void attempt(
+            TransportRequest request,
+            int attempt,
+            CompletableFuture<TransportResponse> result,
+            AtomicReference<CompletableFuture<?>> current) {
+        long wait = rateLimiter == null ? 0 : rateLimiter.reserve();
+        CompletableFuture<AdaptiveConcurrencyLimit.Permit> permitFuture = acquire(wait);
+        track(current, result, permitFuture);
+
+        permitFuture.whenComplete(
+                (permit, throwable) -> {
+                    if (throwable != null) {
+                        result.completeExceptionally(throwable);
+                        return;
+                    }
+                    if (result.isDone()) {
+                        release(permit);
+                        return;
+                    }
+
+                    long start = System.nanoTime();
+                    CompletableFuture<TransportResponse> exchange = delegate.executeAsync(request);
+                    track(current, result, exchange);
+
+                    exchange.whenComplete(
+                            (response, failure) -> {
+                                if (failure != null) {
+                                    Throwable cause =
+                                            failure instanceof CompletionException
+                                                            && failure.getCause() != null
+                                                    ? failure.getCause()
+                                                    : failure;
+                                    if (cause instanceof IOException) {
+                                        drop(permit);
+                                    } else {
+                                        release(permit);
+                                    }
+                                    result.completeExceptionally(failure);
+                                    return;
+                                }
+
+                                if (retry(
+                                        request,
+                                        response,
+                                        permit,
+                                        System.nanoTime() - start,
+                                        attempt)) {
+                                    long delay = retryDelay(response, attempt);
+                                    response.close();
+                                    track(
+                                            current,
+                                            result,
+                                            delay(delay)
+                                                    .thenRun(
+                                                            () ->
+                                                                    attempt(
+                                                                            request,
+                                                                            attempt + 1,
+                                                                            result,
+                                                                            current)));
+                                    return;
+                                }
+
+                                TransportResponse throttled = new PermitResponse(response, permit);
+                                if (!result.complete(throttled)) {
+                                    throttled.close();
+                                }
+                            });
+                });
+    }
+
+    /**
+     * Waits {@code waitNanos}, then for a concurrency slot. Cancelling the returned future takes
+     * the request out of the slot queue, and a slot granted after it was cancelled is released, so
+     * a cancelled request never holds on to one.
+     */
+    private CompletableFuture<AdaptiveConcurrencyLimit.Permit> acquire(long waitNanos) {
+        CompletableFuture<AdaptiveConcurrencyLimit.Permit> permitFuture = new CompletableFuture<>();
+        delay(waitNanos)
+                .whenComplete(
+                        (ignored, throwable) -> {
+                            if (throwable != null) {
+                                permitFuture.completeExceptionally(throwable);
+                                return;
+                            }
+                            if (concurrencyLimit == null || permitFuture.isDone()) {
+                                permitFuture.complete(null);
+                                return;
+                            }
+
+                            CompletableFuture<AdaptiveConcurrencyLimit.Permit> acquired =
+                                    concurrencyLimit.acquire();
+                            permitFuture.whenComplete(
+                                    (permit, failure) -> {
+                                        if (permitFuture.isCancelled()) {
+                                            acquired.cancel(false);
+                                        }
+                                    });
+                            acquired.whenComplete(
+                                    (permit, failure) -> {
+                                        if (failure != null) {
+                                            permitFuture.completeExceptionally(failure);
+                                        } else if (!permitFuture.complete(permit)) {
+                                            release(permit);
+                                        }
+                                    });
+                        });
+        return permitFuture;
+    }
+
+    /**
+     * Records the response as a sample and decides whether to retry it. The permit is released here
+     * when the response is going to be retried.
+     */
+    private boolean retry(
+            TransportRequest request,
+            TransportResponse response,
+            AdaptiveConcurrencyLimit.Permit permit,
+            long latencyNanos,
+            int attempt) {
+        if (response.code() != TOO_MANY_REQUESTS) {
+            if (permit != null) {
+                if (response.code() >= SERVER_ERROR) {
+                    permit.onDropped();
+                } else {
+                    permit.onSuccess(latencyNanos);
+                }
+            }
+            return false;
+        }
+
+        if (permit != null) {
+            permit.onRateLimited();
+        }
+        if (attempt >= maxRetries || (request.getBody() != null && request.getBody().isOneShot())) {
+            return false;
+        }
+        Duration retryAfter = RetryAfter.parse(response.header(RetryAfter.HEADER));
+        if (retryAfter != null && retryAfter.toNanos() > maxRetryDelayNanos) {
+            // Failing fast beats holding the caller for longer than it agreed to wait
+            return false;
+        }
+
+        release(permit);
+        return true;
+    }
+
+    /** Makes {@code stage} the one a cancel of {@code result} reaches. */
+    private static void track(
+            AtomicReference<CompletableFuture<?>> current,
+            CompletableFuture<TransportResponse> result,
+            CompletableFuture<?> stage) {
+        current.set(stage);
+        if (result.isCancelled()) {
+            stage.cancel(true);
+        }
+    }
+
+    private long retryDelay(TransportResponse response, int attempt) {
+        Duration retryAfter = RetryAfter.parse(response.header(RetryAfter.HEADER));
+        if (retryAfter != null) {
+            return retryAfter.toNanos();
+        }
+
+        return Math.min(
+                Math.min(MAX_BACKOFF_NANOS, maxRetryDelayNanos),
+                INITIAL_BACKOFF_NANOS << Math.min(attempt, 16));
+    }
+
+    private AdaptiveConcurrencyLimit.Permit acquire() throws IOException {
+        if (concurrencyLimit == null) {
+            return null;
+        }
+
+        CompletableFuture<AdaptiveConcurrencyLimit.Permit> permit = concurrencyLimit.acquire();
+        try {
+            return permit.get();
+        } catch (InterruptedException exception) {
+            if (!permit.cancel(false)) {
+                release(permit.getNow(null));
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a concurrency permit");
+        } catch (ExecutionException exception) {
+            throw new IOException(exception.getCause());
+        }
+    }
+
+    /** Reports a request that failed without a response as a drop, and releases its permit. */
+    private static void drop(AdaptiveConcurrencyLimit.Permit permit) {
+        if (permit != null) {
+            permit.onDropped();
+            permit.release();
+        }
+    }
+
+    private static void release(AdaptiveConcurrencyLimit.Permit permit) {
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while throttling a request");
+        }
+    }
+
+    private static CompletableFuture<Void> delay(long nanos) {
+        if (nanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(
+                () -> {}, CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS));
+    }
+
+    /** Releases the concurrency permit once the response, and so its body, is closed. */
+    private static final class PermitResponse implements TransportResponse {
+
+        private final TransportResponse delegate;
+
+        private final AdaptiveConcurrencyLimit.Permit permit;
+
+        private PermitResponse(TransportResponse delegate, AdaptiveConcurrencyLimit.Permit permit) {
+            this.delegate = delegate;
+            this.permit = permit;
+        }
+
+        @Override
+        public int code() {
+            return delegate.code();
+        }
+
+        @Override
+        public String header(String name) {
+            return delegate.header(name);
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public InputStream body() {
+            return delegate.body();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                release(permit);
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import io.github.odunlamizo.jsonbin.cache.BinCache;
+import io.github.odunlamizo.jsonbin.cache.CacheCodec;
+import io.github.odunlamizo.jsonbin.cache.CacheStats;
+import io.github.odunlamizo.jsonbin.cache.DiskBinCache;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link BinCache} in memory in front of a {@link DiskBinCache}, either of which may be absent.
+ *
+ * <p>Bodies are written through to both tiers, and disk hits are copied into memory. Keys are
+ * prefixed with a namespace on disk, so that several tiers can share one directory.
+ *
+ * <p>Bodies of immutable entries, such as past versions, are always served from disk. A mutable
+ * entry, such as a bin's latest record, may have changed since it was stored, possibly by an
+ * earlier process: it is served from disk only until it has been fetched once by this process, and
+ * serving it asks the caller to refresh it in the background.
+ *
+ * <p>With refresh-ahead, serving an in-memory body that expires within the window also asks the
+ * caller to refresh it, once per stored body and as long as the refresh budget has a permit left. A
+ * read denied by the budget, or a refresh that fails, leaves the body to be refreshed by a later
+ * read in the window. Bodies that are not read in the window are left to expire. A refreshed body
+ * is dropped if its key was invalidated while the refresh was in flight, so that it does not bring
+ * back what a write replaced.
+ *
+ * <p>With a codec, bodies are kept in memory in its compact form, and {@link #getStored} hands them
+ * out as such; {@link #get} converts them back to JSON. The disk tier always keeps JSON.
+ */
+final class TieredCache {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final BinCache memory;
+
+    private final DiskBinCache disk;
+
+    private final String namespace;
+
+    private final boolean mutable;
+
+    private final Duration refreshAhead;
+
+    private final TokenBucket refreshBudget;
+
+    private final CacheCodec codec;
+
+    private final Set<String> fetched = ConcurrentHashMap.newKeySet();
+
+    /** Bumped on every invalidation of the keys hashing to each stripe. */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder failedRefreshes = new LongAdder();
+
+    private TieredCache(
+            BinCache memory,
+            DiskBinCache disk,
+            String namespace,
+            boolean mutable,
+            Duration refreshAhead,
+            TokenBucket refreshBudget,
+            CacheCodec codec) {
+        this.memory = memory;
+        this.disk = disk;
+        this.namespace = namespace;
+        this.mutable = mutable;
+        this.refreshAhead = refreshAhead;
+        this.refreshBudget = refreshBudget;
+        this.codec = codec;
+    }
+
+    /**
+     * Returns a cache over the given tiers that keeps in-memory bodies as {@code codec} encodes
+     * them, or as received if it is {@code null}, or {@code null} if both tiers are absent.
+     */
+    static TieredCache of(
+            BinCache memory,
+            DiskBinCache disk,
+            String namespace,
+            boolean mutable,
+            CacheCodec codec) {
+        return of(memory, disk, namespace, mutable, null, null, codec);
+    }
+
+    /**
+     * Returns a cache over the given tiers that refreshes in-memory bodies read within {@code
+     * refreshAhead} of their expiry, at the rate {@code refreshBudget} admits, or {@code null} if
+     * both tiers are absent. In-memory bodies are kept as {@code codec} encodes them, or as
+     * received if it is {@code null}.
+     */
+    static TieredCache of(
+            BinCache memory,
+            DiskBinCache disk,
+            String namespace,
+            boolean mutable,
+            Duration refreshAhead,
+            TokenBucket refreshBudget,
+            CacheCodec codec) {
+        if (memory == null && disk == null) {
+            return null;
+        }
+        return new TieredCache(
+                memory, disk, namespace, mutable, refreshAhead, refreshBudget, codec);
+    }
+
+    /**
+     * Returns the cached body for {@code key}, or {@code null} on a miss. {@code refresh} is run
+     * when a mutable body is served from disk, or from memory shortly before it expires, to replace
+     * it with a fresh one.
+     */
+    byte[] get(String key, Runnable refresh) {
+        byte[] body = getStored(key, refresh);
+        return body == null || codec == null ? body : codec.decode(body);
+    }
+
+    /**
+     * Returns the cached body for {@code key} as the codec stores it, or {@code null} on a miss. A
+     * body served from disk is encoded as it is copied into memory. {@code refresh} is run as by
+     * {@link #get}.
+     */
+    byte[] getStored(String key, Runnable refresh) {
+        byte[] body = memory == null ? null : memory.get(key);
+        if (body != null) {
+            if (refreshAhead != null && memory.claimRefresh(key, refreshAhead)) {
+                if (refreshBudget.tryAcquire()) {
+                    refresh.run();
+                } else {
+                    memory.releaseRefresh(key);
+                }
+            }
+            return body;
+        }
+        if (disk == null || (mutable && fetched.contains(key))) {
+            return null;
+        }
+
+        body = disk.get(namespace + key);
+        if (body == null) {
+            return null;
+        }
+
+        byte[] stored = encode(body);
+        if (memory != null) {
+            memory.put(key, stored);
+        }
+        if (mutable && fetched.add(key)) {
+            refresh.run();
+        }
+        return stored;
+    }
+
+    /** Lets a later read refresh {@code key} ahead again, after a refresh of it failed. */
+    void refreshFailed(String key) {
+        failedRefreshes.increment();
+        if (memory != null) {
+            memory.releaseRefresh(key);
+        }
+    }
+
+    /** Returns how many refreshes have failed. */
+    long failedRefreshes() {
+        return failedRefreshes.sum();
+    }
+
+    /**
+     * Returns the generation of {@code key}, to pass to {@link #put(String, byte[], long)} with a
+     * body fetched after this call.
+     */
+    long generation(String key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * Stores {@code body} unless {@code key} has been invalidated since {@code generation} was
+     * read, in which case the body may predate the write that invalidated it. This is the only way
+     * to store a body, so every read path has to read the generation before it fetches.
+     */
+    void put(String key, byte[] body, long generation) {
+        if (generation(key) != generation) {
+            return;
+        }
+        store(key, body);
+        // An invalidation that raced with the put has to win
+        if (generation(key) != generation) {
+            invalidate(key);
+        }
+    }
+
+    private void store(String key, byte[] body) {
+        fetched.add(key);
+        if (memory != null) {
+            memory.put(key, encode(body));
+        }
+        if (disk != null) {
+            disk.put(namespace + key, body);
+        }
+    }
+
+    private byte[] encode(byte[] body) {
+        return codec == null ? body : codec.encode(body);
+    }
+
+    void invalidate(String key) {
+        generations.incrementAndGet(stripe(key));
+        if (memory != null) {
+            memory.invalidate(key);
+        }
+        if (disk != null) {
+            disk.invalidate(namespace + key);
+        }
+    }
+
+    private static int stripe(String key) {
+        return key.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    /** Returns counters of the in-memory tier, or {@link CacheStats#EMPTY} if it is absent. */
+    CacheStats stats() {
+        return memory == null ? CacheStats.EMPTY : memory.stats();
+    }
+}
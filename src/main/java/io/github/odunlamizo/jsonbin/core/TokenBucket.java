@@ -0,0 +1,71 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that admits {@code permitsPerSecond} requests on average, with bursts of up to
+ * {@code burst} requests.
+ *
+ * <p>Callers reserve a permit and are told how long to wait before using it. Reservations may drive
+ * the balance negative, so concurrent callers queue up in order instead of racing for the next
+ * token.
+ */
+class TokenBucket {
+
+    private final double permitsPerNano;
+
+    private final double burst;
+
+    private final LongSupplier ticker;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier ticker) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive.");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive.");
+        }
+
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.ticker = ticker;
+        this.tokens = burst;
+        this.lastRefill = ticker.getAsLong();
+    }
+
+    /** Takes one permit and returns how many nanoseconds the caller must wait before using it. */
+    synchronized long reserve() {
+        long now = ticker.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+
+        return (long) Math.ceil(-tokens / permitsPerNano);
+    }
+
+    /**
+     * Takes one permit if it can be used right away, without queueing behind reservations.
+     *
+     * @return whether a permit was taken
+     */
+    synchronized boolean tryAcquire() {
+        long now = ticker.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.model.LazyBin;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers a SHA-256 hash of the last record written to or read from each bin, in a map bounded to
+ * {@code maxEntries} least recently used bins.
+ */
+class WriteDeduplicator {
+
+    private final Map<String, byte[]> hashes;
+
+    private final LongAdder skipped = new LongAdder();
+
+    WriteDeduplicator(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive.");
+        }
+
+        this.hashes =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                        return size() > maxEntries;
+                    }
+                };
+    }
+
+    /**
+     * Hashes the serialized form of {@code record}. The JSON is streamed into the digest, so it is
+     * never buffered.
+     */
+    byte[] hash(Object record, ObjectWriter writer) {
+        MessageDigest digest = newDigest();
+        try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            writer.writeValue(out, record);
+        } catch (IOException exception) {
+            throw new JsonBinException("Failed to serialize record", exception);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Hashes the record of {@code bin} as received, written by {@code writer}'s generator, without
+     * binding it.
+     *
+     * @return the hash, or {@code null} if the bin has no record
+     */
+    byte[] hash(LazyBin<?> bin, ObjectWriter writer) {
+        MessageDigest digest = newDigest();
+        try (JsonGenerator generator =
+                writer.createGenerator(
+                        new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            if (!bin.copyRecord(generator)) {
+                return null;
+            }
+        } catch (IOException exception) {
+            throw new JsonBinException("Failed to copy record", exception);
+        }
+        return digest.digest();
+    }
+
+    /** Returns whether {@code hash} matches the last known record of the bin. */
+    boolean isUnchanged(String binId, byte[] hash) {
+        byte[] known;
+        synchronized (hashes) {
+            known = hashes.get(binId);
+        }
+
+        if (known != null && MessageDigest.isEqual(known, hash)) {
+            skipped.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    void remember(String binId, byte[] hash) {
+        synchronized (hashes) {
+            hashes.put(binId, hash);
+        }
+    }
+
+    void forget(String binId) {
+        synchronized (hashes) {
+            hashes.remove(binId);
+        }
+    }
+
+    long skipped() {
+        return skipped.sum();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package io.github.odunlamizo.jsonbin.httpclient;
+
+import io.github.odunlamizo.jsonbin.transport.Transport;
+import io.github.odunlamizo.jsonbin.transport.TransportBody;
+import io.github.odunlamizo.jsonbin.transport.TransportRequest;
+import io.github.odunlamizo.jsonbin.transport.TransportResponse;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import lombok.NonNull;
+
+/**
+ * {@link Transport} backed by the JDK's {@link HttpClient}.
+ *
+ * <p>Requests to the same host are multiplexed over a single HTTP/2 connection when the server
+ * supports it. Request and response bodies are streamed. Bodies that can be {@linkplain
+ * TransportBody#openStream() opened}, such as files, are read as they are sent. The others, such as
+ * serialized records, are written on a separate thread into a pipe of a few chunks that the request
+ * reads from, because {@link HttpRequest.BodyPublisher} cannot be fed from an {@link OutputStream}.
+ *
+ * <p>Unlike OkHttp, {@link HttpClient} does not negotiate compression, so this transport asks for
+ * {@code gzip} itself, unless the request sets its own {@code Accept-Encoding}, and inflates gzip
+ * responses as they are read.
+ */
+public class HttpClientTransport implements Transport {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private static final String GZIP = "gzip";
+
+    /** Chunks a body writer may get ahead of the request reading them. */
+    private static final int PIPE_CHUNKS = 4;
+
+    private static final ExecutorService BODY_WRITERS =
+            Executors.newCachedThreadPool(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "jsonbin-body-writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    /** Default of {@link #HttpClientTransport(HttpClient, Duration)}, matching OkHttp's. */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client;
+
+    private final Duration requestTimeout;
+
+    /** Creates a transport whose requests time out after {@link #DEFAULT_REQUEST_TIMEOUT}. */
+    public HttpClientTransport(@NonNull HttpClient client) {
+        this(client, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * @param requestTimeout how long each request may wait for the response to arrive
+     */
+    public HttpClientTransport(@NonNull HttpClient client, @NonNull Duration requestTimeout) {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        try {
+            return new HttpClientResponse(
+                    client.send(toRequest(request), HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Request interrupted");
+            interrupted.initCause(exception);
+            throw interrupted;
+        }
+    }
+
+    /** Sends the request asynchronously; cancelling the future cancels the exchange. */
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        CompletableFuture<TransportResponse> future = new CompletableFuture<>();
+
+        CompletableFuture<HttpResponse<InputStream>> exchange;
+        try {
+            exchange =
+                    client.sendAsync(toRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (UncheckedIOException exception) {
+            future.completeExceptionally(exception.getCause());
+            return future;
+        }
+
+        future.whenComplete(
+                (response, throwable) -> {
+                    if (future.isCancelled()) {
+                        exchange.cancel(true);
+                    }
+                });
+
+        exchange.whenComplete(
+                (response, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(
+                                throwable instanceof CompletionException
+                                                && throwable.getCause() != null
+                                        ? throwable.getCause()
+                                        : throwable);
+                        return;
+                    }
+
+                    HttpClientResponse adapted = new HttpClientResponse(response);
+                    if (!future.complete(adapted)) {
+                        adapted.close();
+                    }
+                });
+
+        return future;
+    }
+
+    private HttpRequest toRequest(TransportRequest request) {
+        HttpRequest.Builder requestBuilder =
+                HttpRequest.newBuilder(URI.create(request.getUrl())).timeout(requestTimeout);
+        request.getHeaders().forEach(requestBuilder::header);
+        if (request.getHeaders().keySet().stream().noneMatch(ACCEPT_ENCODING::equalsIgnoreCase)) {
+            requestBuilder.header(ACCEPT_ENCODING, GZIP);
+        }
+
+        TransportBody body = request.getBody();
+        if (body == null) {
+            return requestBuilder
+                    .method(request.getMethod(), HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+
+        requestBuilder.header("Content-Type", body.contentType());
+        if (body.contentEncoding() != null) {
+            requestBuilder.header(CONTENT_ENCODING, body.contentEncoding());
+        }
+        HttpRequest.BodyPublisher publisher =
+                HttpRequest.BodyPublishers.ofInputStream(() -> open(body));
+        if (body.contentLength() >= 0) {
+            publisher = HttpRequest.BodyPublishers.fromPublisher(publisher, body.contentLength());
+        }
+        return requestBuilder.method(request.getMethod(), publisher).build();
+    }
+
+    /** Opens the body, or pipes it from a writer thread if it can only be written. */
+    private static InputStream open(TransportBody body) {
+        try {
+            InputStream in = body.openStream();
+            if (in != null) {
+                return in;
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        PipedBody pipe = new PipedBody();
+        BODY_WRITERS.execute(() -> pipe.fill(body));
+        return pipe;
+    }
+
+    /**
+     * Hands the chunks a body writer produces to the request, holding at most {@link #PIPE_CHUNKS}
+     * of them. A writer that fails makes the request fail rather than send a truncated body, and
+     * closing the pipe stops the writer.
+     */
+    private static final class PipedBody extends InputStream {
+
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(PIPE_CHUNKS);
+
+        private volatile IOException failure;
+
+        private volatile boolean closed;
+
+        private byte[] chunk;
+
+        private int position;
+
+        /** Writes {@code body} into the pipe; runs on a writer thread. */
+        private void fill(TransportBody body) {
+            try (OutputStream out = new BufferedOutputStream(new ChunkSink(), CHUNK_SIZE)) {
+                body.writeTo(out);
+            } catch (IOException exception) {
+                failure = exception;
+            } catch (RuntimeException exception) {
+                failure = new IOException("Failed to write request body", exception);
+            }
+            try {
+                offer(END);
+            } catch (IOException ignored) {
+                // The pipe was closed; nobody is left to read the end
+            }
+        }
+
+        private void offer(byte[] bytes) throws IOException {
+            try {
+                while (!chunks.offer(bytes, 100, TimeUnit.MILLISECONDS)) {
+                    if (closed) {
+                        throw new IOException("Request body is no longer read");
+                    }
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Request body write interrupted");
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (chunk == null || (chunk != END && position == chunk.length)) {
+                try {
+                    chunk = chunks.take();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Request body read interrupted");
+                }
+                position = 0;
+            }
+            if (chunk == END) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return -1;
+            }
+
+            int count = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            chunks.clear();
+        }
+
+        /** Passes each buffered chunk on to the pipe. */
+        private final class ChunkSink extends OutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException {
+                if (length > 0) {
+                    offer(Arrays.copyOfRange(buffer, offset, offset + length));
+                }
+            }
+        }
+    }
+
+    private static final class HttpClientResponse implements TransportResponse {
+
+        private final HttpResponse<InputStream> response;
+
+        private final boolean gzip;
+
+        private InputStream body;
+
+        private HttpClientResponse(HttpResponse<InputStream> response) {
+            this.response = response;
+            this.gzip =
+                    response.headers()
+                            .firstValue(CONTENT_ENCODING)
+                            .map(GZIP::equalsIgnoreCase)
+                            .orElse(false);
+        }
+
+        @Override
+        public int code() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String header(String name) {
+            return response.headers().firstValue(name).orElse(null);
+        }
+
+        /** Returns -1 for gzip bodies, whose declared length is not the length read. */
+        @Override
+        public long contentLength() {
+            if (gzip) {
+                return -1;
+            }
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        }
+
+        @Override
+        public InputStream body() {
+            if (body == null) {
+                body = gzip ? new GzipInputStream(response.body()) : response.body();
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.body().close();
+            } catch (IOException ignored) {
+                // Closing only releases the connection; there is nothing left to recover.
+            }
+        }
+    }
+
+    /**
+     * Inflates a gzip body as it is read. The gzip header is only read on the first read, so {@link
+     * HttpClientResponse#body()} does no I/O.
+     */
+    private static final class GzipInputStream extends FilterInputStream {
+
+        private boolean inflating;
+
+        private GzipInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return inflating().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return inflating().read(buffer, offset, length);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return inflating().skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return inflating ? in.available() : 0;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private InputStream inflating() throws IOException {
+            if (!inflating) {
+                in = new GZIPInputStream(in, CHUNK_SIZE);
+                inflating = true;
+            }
+            return in;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.odunlamizo.jsonbin.httpclient;
+
+import io.github.odunlamizo.jsonbin.core.AbstractJsonBin;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import lombok.NonNull;
+
+/**
+ * JSONBIN.io Java SDK implementation powered by the JDK's {@link HttpClient}, for applications that
+ * do not want to depend on OkHttp.
+ */
+public class JsonBinHttpClient extends AbstractJsonBin {
+
+    private JsonBinHttpClient(Builder builder) {
+        super(new HttpClientTransport(builder.client, builder.requestTimeout), builder);
+    }
+
+    public static class Builder extends AbstractJsonBin.Builder<Builder> {
+
+        private HttpClient client;
+
+        private Executor httpExecutor;
+
+        private Duration requestTimeout = HttpClientTransport.DEFAULT_REQUEST_TIMEOUT;
+
+        /**
+         * Sets the {@link HttpClient} used for every call. Cannot be combined with {@link
+         * #withHttpExecutor(Executor)}; configure the client's executor instead.
+         */
+        public Builder withHttpClient(@NonNull HttpClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Sets the executor of the default {@link HttpClient}, which runs its asynchronous tasks
+         * and dependent actions. On Java 21 and later this can be a virtual-thread-per-task
+         * executor.
+         */
+        public Builder withHttpExecutor(@NonNull Executor httpExecutor) {
+            this.httpExecutor = httpExecutor;
+            return this;
+        }
+
+        /**
+         * Caps how long each request may wait for the response to arrive, after which it fails with
+         * an {@link java.net.http.HttpTimeoutException}. Defaults to 10 seconds, like OkHttp's read
+         * timeout, so that a stalled server cannot hang a synchronous call.
+         */
+        public Builder withRequestTimeout(@NonNull Duration requestTimeout) {
+            if (requestTimeout.isNegative() || requestTimeout.isZero()) {
+                throw new IllegalArgumentException("requestTimeout must be positive.");
+            }
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        @Override
+        protected void validate() {
+            super.validate();
+            if (client != null && httpExecutor != null) {
+                throw new IllegalArgumentException(
+                        "withHttpExecutor cannot be combined with withHttpClient.");
+            }
+        }
+
+        @Override
+        public JsonBinHttpClient build() {
+            validate();
+
+            if (client == null) {
+                HttpClient.Builder clientBuilder =
+                        HttpClient.newBuilder()
+                                .version(HttpClient.Version.HTTP_2)
+                                .followRedirects(HttpClient.Redirect.NORMAL)
+                                .connectTimeout(Duration.ofSeconds(10));
+                if (httpExecutor != null) {
+                    clientBuilder.executor(httpExecutor);
+                }
+                client = clientBuilder.build();
+            }
+
+            return new JsonBinHttpClient(this);
+        }
+    }
+}
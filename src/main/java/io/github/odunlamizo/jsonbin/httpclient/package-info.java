@@ -0,0 +1 @@
+package io.github.odunlamizo.jsonbin.httpclient;
@@ -0,0 +1,558 @@
+package io.github.odunlamizo.jsonbin.inmemory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.odunlamizo.jsonbin.JsonBin;
+import io.github.odunlamizo.jsonbin.transport.Transport;
+import io.github.odunlamizo.jsonbin.transport.TransportBody;
+import io.github.odunlamizo.jsonbin.transport.TransportRequest;
+import io.github.odunlamizo.jsonbin.transport.TransportResponse;
+import io.github.odunlamizo.jsonbin.util.JsonUtil;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Serves the JSONBin API from memory, with injected latency and failures.
+ *
+ * <p>Bins and collections live in concurrent maps. The versions of a bin and the members of a
+ * collection are guarded by read-write locks striped by id, so that requests on different bins
+ * rarely contend. Bins are versioned from 1, the record they were created with, and collections
+ * list their bins in creation order, {@code pageSize} at a time.
+ *
+ * <p>Each request is delayed by {@code latency} plus a uniformly random share of {@code jitter},
+ * then fails with {@code errorStatus} with probability {@code errorRate}, before it is served, so
+ * failed writes change nothing.
+ */
+final class InMemoryTransport implements Transport {
+
+    private static final ObjectReader NODE_READER = JsonUtil.registry().reader(JsonNode.class);
+
+    private static final ObjectWriter NODE_WRITER = JsonUtil.registry().writer(JsonNode.class);
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final String baseUrl;
+
+    private final long latencyNanos;
+
+    private final long jitterNanos;
+
+    private final double errorRate;
+
+    private final int errorStatus;
+
+    private final int pageSize;
+
+    private final Random random;
+
+    private final Map<String, StoredBin> bins = new ConcurrentHashMap<>();
+
+    private final Map<String, StoredCollection> collections = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock[] stripes;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    InMemoryTransport(
+            String baseUrl,
+            long latencyNanos,
+            long jitterNanos,
+            double errorRate,
+            int errorStatus,
+            int pageSize,
+            Long seed) {
+        this.baseUrl = baseUrl;
+        this.latencyNanos = latencyNanos;
+        this.jitterNanos = jitterNanos;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.pageSize = pageSize;
+        this.random = seed == null ? null : new Random(seed);
+
+        // A power of two, so that a stripe is picked by masking the hash
+        int count = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        this.stripes = new ReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        long delay = delayNanos();
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while injecting latency");
+            }
+        }
+
+        return respond(request);
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        CompletableFuture<TransportResponse> future = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(delayNanos(), TimeUnit.NANOSECONDS)
+                .execute(
+                        () -> {
+                            if (future.isDone()) {
+                                return;
+                            }
+                            try {
+                                future.complete(respond(request));
+                            } catch (IOException exception) {
+                                future.completeExceptionally(exception);
+                            }
+                        });
+        return future;
+    }
+
+    private long delayNanos() {
+        if (jitterNanos == 0) {
+            return latencyNanos;
+        }
+        if (random == null) {
+            return latencyNanos + ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+        }
+        synchronized (random) {
+            return latencyNanos + (long) (random.nextDouble() * (jitterNanos + 1));
+        }
+    }
+
+    private boolean injectFailure() {
+        if (errorRate <= 0) {
+            return false;
+        }
+        if (random == null) {
+            return ThreadLocalRandom.current().nextDouble() < errorRate;
+        }
+        synchronized (random) {
+            return random.nextDouble() < errorRate;
+        }
+    }
+
+    private TransportResponse respond(TransportRequest request) throws IOException {
+        if (injectFailure()) {
+            return error(errorStatus, "Injected failure");
+        }
+
+        String url = request.getUrl();
+        if (!url.startsWith(baseUrl + "/")) {
+            return error(404, "Route not found");
+        }
+        String[] path = url.substring(baseUrl.length() + 1).split("/", -1);
+        String method = request.getMethod();
+
+        if (path[0].equals("b")) {
+            if (path.length == 1 && method.equals("POST")) {
+                return createBin(request);
+            }
+            if (path.length == 2 && method.equals("GET")) {
+                return readBin(request, path[1], null);
+            }
+            if (path.length == 2 && method.equals("PUT")) {
+                return updateBin(request, path[1]);
+            }
+            if (path.length == 3 && method.equals("GET") && path[2].matches("[0-9]{1,9}")) {
+                return readBin(request, path[1], Integer.valueOf(path[2]));
+            }
+            if (path.length == 4
+                    && method.equals("GET")
+                    && path[2].equals("versions")
+                    && path[3].equals("count")) {
+                return readVersionCount(path[1]);
+            }
+        } else if (path[0].equals("c")) {
+            if (path.length == 1 && method.equals("POST")) {
+                return createCollection(request);
+            }
+            if ((path.length == 3 || path.length == 4)
+                    && method.equals("GET")
+                    && path[2].equals("bins")) {
+                return readCollection(path[1], path.length == 4 ? path[3] : null);
+            }
+            if (path.length == 4
+                    && method.equals("PUT")
+                    && path[2].equals("meta")
+                    && path[3].equals("name")) {
+                return updateCollection(request, path[1]);
+            }
+        }
+
+        return error(404, "Route not found");
+    }
+
+    /** Serves the given version of a bin, or its latest when {@code version} is {@code null}. */
+    private TransportResponse readBin(TransportRequest request, String binId, Integer version) {
+        if (request.getHeaders().containsKey(JsonBin.HEADER_JSON_PATH)) {
+            return error(400, "X-JSON-Path is not supported in memory");
+        }
+
+        StoredBin bin = bins.get(binId);
+        if (bin == null) {
+            return error(404, "Bin not found or it doesn't belong to your account");
+        }
+
+        JsonNode record;
+        Lock lock = stripe(binId).readLock();
+        lock.lock();
+        try {
+            int count = bin.versions.size();
+            if (version != null && (version < 1 || version > count)) {
+                return error(404, "Bin version not found");
+            }
+            record = bin.versions.get((version == null ? count : version) - 1);
+        } finally {
+            lock.unlock();
+        }
+
+        if ("false".equals(request.getHeaders().get(JsonBin.HEADER_BIN_META))) {
+            return ok(record);
+        }
+        return ok(binBody(record, bin.metadata()));
+    }
+
+    private TransportResponse readVersionCount(String binId) {
+        StoredBin bin = bins.get(binId);
+        if (bin == null) {
+            return error(404, "Bin not found or it doesn't belong to your account");
+        }
+
+        ObjectNode metadata = NODES.objectNode().put("id", binId).put("private", bin.isPrivate);
+        Lock lock = stripe(binId).readLock();
+        lock.lock();
+        try {
+            metadata.put("versionCount", bin.versions.size());
+        } finally {
+            lock.unlock();
+        }
+
+        return ok(NODES.objectNode().set("metadata", metadata));
+    }
+
+    private TransportResponse createBin(TransportRequest request) throws IOException {
+        JsonNode record;
+        try {
+            record = record(request);
+        } catch (JsonProcessingException exception) {
+            return error(400, "Invalid JSON");
+        }
+        if (record == null) {
+            return error(400, "Bin cannot be blank");
+        }
+
+        Map<String, String> headers = request.getHeaders();
+        String collectionId = headers.get(JsonBin.HEADER_COLLECTION_ID);
+        StoredCollection collection = null;
+        if (collectionId != null) {
+            collection = collections.get(collectionId);
+            if (collection == null) {
+                return error(404, "Collection not found");
+            }
+        }
+
+        StoredBin bin =
+                new StoredBin(
+                        nextId(),
+                        headers.get(JsonBin.HEADER_BIN_NAME),
+                        !"false".equals(headers.get(JsonBin.HEADER_BIN_PRIVATE)),
+                        collectionId,
+                        Instant.now().toString());
+        bin.versions.add(record);
+        bins.put(bin.id, bin);
+
+        if (collection != null) {
+            Lock lock = stripe(collectionId).writeLock();
+            lock.lock();
+            try {
+                collection.positions.put(bin.id, collection.binIds.size());
+                collection.binIds.add(bin.id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return ok(binBody(record, bin.metadata()));
+    }
+
+    private TransportResponse updateBin(TransportRequest request, String binId) throws IOException {
+        StoredBin bin = bins.get(binId);
+        if (bin == null) {
+            return error(404, "Bin not found or it doesn't belong to your account");
+        }
+
+        JsonNode record;
+        try {
+            record = record(request);
+        } catch (JsonProcessingException exception) {
+            return error(400, "Invalid JSON");
+        }
+        if (record == null) {
+            return error(400, "Bin cannot be blank");
+        }
+
+        Lock lock = stripe(binId).writeLock();
+        lock.lock();
+        try {
+            bin.versions.add(record);
+        } finally {
+            lock.unlock();
+        }
+
+        ObjectNode metadata =
+                NODES.objectNode().put("parentId", binId).put("private", bin.isPrivate);
+        return ok(binBody(record, metadata));
+    }
+
+    /** Serves the page of bins created after {@code lastBinId}, or the first page. */
+    private TransportResponse readCollection(String collectionId, String lastBinId) {
+        StoredCollection collection = collections.get(collectionId);
+        if (collection == null) {
+            return error(404, "Collection not found");
+        }
+
+        List<String> page;
+        Lock lock = stripe(collectionId).readLock();
+        lock.lock();
+        try {
+            int from = 0;
+            if (lastBinId != null) {
+                Integer position = collection.positions.get(lastBinId);
+                if (position == null) {
+                    return error(404, "Bin not found in collection");
+                }
+                from = position + 1;
+            }
+            int to = Math.min(from + pageSize, collection.binIds.size());
+            page = new ArrayList<>(collection.binIds.subList(from, to));
+        } finally {
+            lock.unlock();
+        }
+
+        ArrayNode handles = NODES.arrayNode();
+        for (String binId : page) {
+            StoredBin bin = bins.get(binId);
+            ObjectNode handle = handles.addObject();
+            handle.put("private", bin.isPrivate);
+            handle.putObject("snippetMeta").put("name", bin.name);
+            handle.put("record", bin.id);
+            handle.put("createdAt", bin.createdAt);
+        }
+        return ok(handles);
+    }
+
+    private TransportResponse createCollection(TransportRequest request) {
+        String name = request.getHeaders().get(JsonBin.HEADER_COLLECTION_NAME);
+        if (name == null || name.isBlank()) {
+            return error(400, "X-Collection-Name cannot be blank");
+        }
+
+        StoredCollection collection = new StoredCollection(nextId(), Instant.now().toString());
+        collection.name = name;
+        collections.put(collection.id, collection);
+
+        return ok(collectionBody(collection));
+    }
+
+    private TransportResponse updateCollection(TransportRequest request, String collectionId) {
+        StoredCollection collection = collections.get(collectionId);
+        if (collection == null) {
+            return error(404, "Collection not found");
+        }
+
+        String name = request.getHeaders().get(JsonBin.HEADER_COLLECTION_NAME);
+        if (name == null || name.isBlank()) {
+            return error(400, "X-Collection-Name cannot be blank");
+        }
+        collection.name = name;
+
+        return ok(collectionBody(collection));
+    }
+
+    /** Returns the record in the request body, or {@code null} if there is none. */
+    private static JsonNode record(TransportRequest request) throws IOException {
+        TransportBody body = request.getBody();
+        if (body == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        if (out.size() == 0) {
+            return null;
+        }
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        if ("gzip".equalsIgnoreCase(body.contentEncoding())) {
+            in = new GZIPInputStream(in);
+        }
+
+        JsonNode record = NODE_READER.readValue(in);
+        return record == null || record.isMissingNode() ? null : record;
+    }
+
+    private static ObjectNode binBody(JsonNode record, ObjectNode metadata) {
+        ObjectNode body = NODES.objectNode();
+        body.set("record", record);
+        body.set("metadata", metadata);
+        return body;
+    }
+
+    private static ObjectNode collectionBody(StoredCollection collection) {
+        ObjectNode body = NODES.objectNode().put("record", collection.id);
+        body.putObject("metadata")
+                .put("createdAt", collection.createdAt)
+                .put("name", collection.name);
+        return body;
+    }
+
+    private String nextId() {
+        return String.format("%024x", ids.incrementAndGet());
+    }
+
+    private ReadWriteLock stripe(String id) {
+        int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static TransportResponse ok(JsonNode body) {
+        return response(200, body);
+    }
+
+    private static TransportResponse error(int code, String message) {
+        return response(code, NODES.objectNode().put("message", message));
+    }
+
+    private static TransportResponse response(int code, JsonNode body) {
+        try {
+            return new InMemoryResponse(code, NODE_WRITER.writeValueAsBytes(body));
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static final class StoredBin {
+
+        private final String id;
+
+        private final String name;
+
+        private final boolean isPrivate;
+
+        private final String collectionId;
+
+        private final String createdAt;
+
+        /** Every record the bin has held, oldest first; guarded by the bin's stripe. */
+        private final List<JsonNode> versions = new ArrayList<>();
+
+        private StoredBin(
+                String id, String name, boolean isPrivate, String collectionId, String createdAt) {
+            this.id = id;
+            this.name = name;
+            this.isPrivate = isPrivate;
+            this.collectionId = collectionId;
+            this.createdAt = createdAt;
+        }
+
+        private ObjectNode metadata() {
+            ObjectNode metadata =
+                    NODES.objectNode()
+                            .put("id", id)
+                            .put("private", isPrivate)
+                            .put("createdAt", createdAt);
+            if (name != null) {
+                metadata.put("name", name);
+            }
+            if (collectionId != null) {
+                metadata.put("collectionId", collectionId);
+            }
+            return metadata;
+        }
+    }
+
+    private static final class StoredCollection {
+
+        private final String id;
+
+        private final String createdAt;
+
+        private volatile String name;
+
+        /** Member bins in creation order, and their indices; guarded by the collection's stripe. */
+        private final List<String> binIds = new ArrayList<>();
+
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        private StoredCollection(String id, String createdAt) {
+            this.id = id;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class InMemoryResponse implements TransportResponse {
+
+        private final int code;
+
+        private final byte[] body;
+
+        private final InputStream stream;
+
+        private InMemoryResponse(int code, byte[] body) {
+            this.code = code;
+            this.body = body;
+            this.stream = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int code() {
+            return code;
+        }
+
+        @Override
+        public String header(String name) {
+            return "Content-Type".equalsIgnoreCase(name) ? "application/json" : null;
+        }
+
+        @Override
+        public long contentLength() {
+            return body.length;
+        }
+
+        @Override
+        public InputStream body() {
+            return stream;
+        }
+
+        @Override
+        public void close() {
+            // Nothing is held
+        }
+    }
+}
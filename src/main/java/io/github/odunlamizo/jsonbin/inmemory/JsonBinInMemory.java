@@ -0,0 +1,103 @@
+package io.github.odunlamizo.jsonbin.inmemory;
+
+import io.github.odunlamizo.jsonbin.core.AbstractJsonBin;
+import java.time.Duration;
+import lombok.NonNull;
+
+/**
+ * JSONBIN.io Java SDK implementation backed by an in-process store instead of the service, for
+ * load-testing code that depends on {@code JsonBin} without network cost or quota.
+ *
+ * <p>Bins, versions, collections and their pagination behave like the service's, and every feature
+ * of the builder, such as caching, coalescing and throttling, applies as it does over HTTP, so
+ * their effect can be measured against a repeatable baseline. Latency, jitter and failures are
+ * injected per request. JSONPath queries are not supported. Keys are optional and not checked, and
+ * the base URL is ignored. Each instance has its own, initially empty, store.
+ */
+public class JsonBinInMemory extends AbstractJsonBin {
+
+    private static final String BASE_URL = "http://in-memory.jsonbin";
+
+    private JsonBinInMemory(Builder builder) {
+        super(
+                new InMemoryTransport(
+                        BASE_URL,
+                        builder.latency.toNanos(),
+                        builder.jitter.toNanos(),
+                        builder.errorRate,
+                        builder.errorStatus,
+                        builder.pageSize,
+                        builder.seed),
+                builder);
+    }
+
+    public static class Builder extends AbstractJsonBin.Builder<Builder> {
+
+        private Duration latency = Duration.ZERO;
+
+        private Duration jitter = Duration.ZERO;
+
+        private double errorRate;
+
+        private int errorStatus = 500;
+
+        private int pageSize = 10;
+
+        private Long seed;
+
+        /**
+         * Delays every request by {@code latency} plus a uniformly random share of up to {@code
+         * jitter}. Synchronous calls sleep on the calling thread; asynchronous calls complete
+         * without blocking one. No delay by default.
+         */
+        public Builder withLatency(@NonNull Duration latency, @NonNull Duration jitter) {
+            if (latency.isNegative() || jitter.isNegative()) {
+                throw new IllegalArgumentException("latency and jitter must not be negative.");
+            }
+            this.latency = latency;
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Fails each request with probability {@code errorRate}, with the HTTP status {@code
+         * statusCode}, such as 429 to exercise retries or 500. A failed write changes nothing. No
+         * failures by default.
+         */
+        public Builder withErrors(double errorRate, int statusCode) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("errorRate must be between 0 and 1.");
+            }
+            if (statusCode < 400 || statusCode > 599) {
+                throw new IllegalArgumentException("statusCode must be an error status.");
+            }
+            this.errorRate = errorRate;
+            this.errorStatus = statusCode;
+            return this;
+        }
+
+        /** Sets the number of bins per page of a collection listing. 10 by default, as served. */
+        public Builder withPageSize(int pageSize) {
+            if (pageSize <= 0) {
+                throw new IllegalArgumentException("pageSize must be positive.");
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Seeds the draws of jitter and failures, so that a single-threaded run injects the same
+         * sequence every time. Unseeded by default.
+         */
+        public Builder withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        @Override
+        public JsonBinInMemory build() {
+            withBaseUrl(BASE_URL);
+            return new JsonBinInMemory(this);
+        }
+    }
+}
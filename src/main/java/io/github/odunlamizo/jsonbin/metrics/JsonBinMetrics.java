@@ -0,0 +1,58 @@
+package io.github.odunlamizo.jsonbin.metrics;
+
+/**
+ * Receives measurements from a client. Every method has an empty default, so implementations only
+ * override what they record, and every method may be called concurrently from any thread.
+ *
+ * <p>{@code operation} is the name of the {@code JsonBin} method that issued the HTTP call, such as
+ * {@code readBin} or {@code updateBin}. Reads answered from a cache make no HTTP call and are not
+ * reported. Durations are in nanoseconds.
+ */
+public interface JsonBinMetrics {
+
+    /** Records nothing; the default. */
+    JsonBinMetrics NOOP = new JsonBinMetrics() {};
+
+    /** Stage of an HTTP call. */
+    enum Phase {
+        /** Resolving the host name. */
+        DNS,
+        /** Opening the TCP connection, including TLS. */
+        CONNECT,
+        /** The TLS handshake. */
+        TLS,
+        /** From the end of the request to the start of the response headers. */
+        TIME_TO_FIRST_BYTE,
+        /**
+         * Reading the response body off the network, from its first byte to its last. The body is
+         * decoded as it is read, so this overlaps {@link #DECODE} rather than adding to it.
+         */
+        BODY_READ,
+        /**
+         * Deserializing the response body, which is read as it is decoded, so this includes {@link
+         * #BODY_READ}.
+         */
+        DECODE
+    }
+
+    /**
+     * Records one HTTP-backed operation, from the start of the call until its result or failure.
+     *
+     * @param status the HTTP status code, or -1 if no response was received
+     * @param error the failure, or {@code null} if the operation succeeded
+     */
+    default void recordOperation(
+            String operation, long durationNanos, int status, Throwable error) {}
+
+    /** Records the time spent in one {@link Phase} of a call. */
+    default void recordPhase(String operation, Phase phase, long durationNanos) {}
+
+    /** Records the size of a request body written to the network. */
+    default void recordBytesSent(String operation, long bytes) {}
+
+    /** Records the size of a response body read from the network. */
+    default void recordBytesReceived(String operation, long bytes) {}
+
+    /** Records whether a call reused a pooled connection or opened a new one. */
+    default void recordConnection(String operation, boolean reused) {}
+}
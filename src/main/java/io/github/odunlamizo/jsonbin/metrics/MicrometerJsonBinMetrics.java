@@ -0,0 +1,132 @@
+package io.github.odunlamizo.jsonbin.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+
+/**
+ * {@link JsonBinMetrics} backed by a Micrometer {@link MeterRegistry}. Requires {@code
+ * io.micrometer:micrometer-core} on the classpath.
+ *
+ * <ul>
+ *   <li>{@code jsonbin.operation} timer, tagged {@code operation}, {@code status} and {@code
+ *       outcome}, with a percentile histogram
+ *   <li>{@code jsonbin.phase} timer, tagged {@code operation} and {@code phase}
+ *   <li>{@code jsonbin.bytes} summary, tagged {@code operation} and {@code direction}
+ *   <li>{@code jsonbin.connections} counter, tagged {@code operation} and {@code reused}
+ *   <li>{@code jsonbin.errors} counter, tagged {@code operation} and {@code status}
+ * </ul>
+ *
+ * <p>Meters are registered on first use and kept per combination of tags, so recording a call does
+ * not look them up in the registry again.
+ */
+public class MicrometerJsonBinMetrics implements JsonBinMetrics {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentMap<Key, Timer> operations = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, Counter> errors = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, Timer> phases = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, DistributionSummary> bytes = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, Counter> connections = new ConcurrentHashMap<>();
+
+    public MicrometerJsonBinMetrics(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordOperation(String operation, long durationNanos, int status, Throwable error) {
+        String outcome = error == null ? "success" : "error";
+        operations
+                .computeIfAbsent(
+                        new Key(tag(operation), status, outcome),
+                        key ->
+                                Timer.builder("jsonbin.operation")
+                                        .tag("operation", key.operation())
+                                        .tag("status", statusTag(status))
+                                        .tag("outcome", outcome)
+                                        .publishPercentileHistogram()
+                                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+
+        if (error != null) {
+            errors.computeIfAbsent(
+                            new Key(tag(operation), status, null),
+                            key ->
+                                    Counter.builder("jsonbin.errors")
+                                            .tag("operation", key.operation())
+                                            .tag("status", statusTag(status))
+                                            .register(registry))
+                    .increment();
+        }
+    }
+
+    @Override
+    public void recordPhase(String operation, Phase phase, long durationNanos) {
+        phases.computeIfAbsent(
+                        new Key(tag(operation), phase, null),
+                        key ->
+                                Timer.builder("jsonbin.phase")
+                                        .tag("operation", key.operation())
+                                        .tag("phase", phase.name().toLowerCase())
+                                        .publishPercentileHistogram()
+                                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordBytesSent(String operation, long bytes) {
+        bytes(operation, "sent").record(bytes);
+    }
+
+    @Override
+    public void recordBytesReceived(String operation, long bytes) {
+        bytes(operation, "received").record(bytes);
+    }
+
+    @Override
+    public void recordConnection(String operation, boolean reused) {
+        connections
+                .computeIfAbsent(
+                        new Key(tag(operation), reused, null),
+                        key ->
+                                Counter.builder("jsonbin.connections")
+                                        .tag("operation", key.operation())
+                                        .tag("reused", Boolean.toString(reused))
+                                        .register(registry))
+                .increment();
+    }
+
+    private DistributionSummary bytes(String operation, String direction) {
+        return bytes.computeIfAbsent(
+                new Key(tag(operation), direction, null),
+                key ->
+                        DistributionSummary.builder("jsonbin.bytes")
+                                .baseUnit("bytes")
+                                .tag("operation", key.operation())
+                                .tag("direction", direction)
+                                .register(registry));
+    }
+
+    private static String statusTag(int status) {
+        return status < 0 ? "none" : Integer.toString(status);
+    }
+
+    private static String tag(String operation) {
+        return operation == null ? UNKNOWN : operation;
+    }
+
+    /** The tags a meter is cached under, besides its name. */
+    private record Key(String operation, Object tag, Object otherTag) {}
+}
@@ -0,0 +1,39 @@
+package io.github.odunlamizo.jsonbin.model;
+
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * The outcome of reading one bin of a collection in bulk: either the bin's record or the error that
+ * reading it failed with.
+ *
+ * @param <T> the type of the data record stored in the bin
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CollectionRecord<T> {
+
+    /** The collection's handle of the bin that was read. */
+    BinHandle handle;
+
+    /** The bin's record, or {@code null} if reading it failed. */
+    T record;
+
+    /** Why reading the bin failed, or {@code null} if it succeeded. */
+    JsonBinException error;
+
+    public static <T> CollectionRecord<T> success(BinHandle handle, T record) {
+        return new CollectionRecord<>(handle, record, null);
+    }
+
+    public static <T> CollectionRecord<T> failure(BinHandle handle, JsonBinException error) {
+        return new CollectionRecord<>(handle, null, error);
+    }
+
+    /** Returns whether the bin's record was read. */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -0,0 +1,293 @@
+package io.github.odunlamizo.jsonbin.model;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import lombok.NonNull;
+
+/**
+ * A {@link Bin} whose record is kept unbound and only bound to {@code T} on the first call to
+ * {@link #getRecord()}.
+ *
+ * <p>Callers that only look at the metadata, such as the id of a bin that was just created, skip
+ * binding the record altogether. When the bin is read from a byte array by a reader with {@code
+ * INCLUDE_SOURCE_IN_LOCATION} enabled, as {@code JsonUtil.Registry.lazyBinReader} builds for JSON,
+ * the record is skipped over and its bytes are kept; otherwise its tokens are buffered. The bound
+ * record is memoized, so later calls, from any thread, return the same instance. The unbound record
+ * is kept too, so {@link #getRecord(Class)} can bind it to another type without another request. A
+ * record that does not fit {@code T} only fails when it is bound.
+ *
+ * <p>A reader with the {@link #RECORD_ONLY} attribute set reads a body that is the record itself,
+ * as fetched without metadata, and leaves the metadata to the caller. {@link #equals}, {@link
+ * #hashCode} and {@link #toString} never bind the record: an unbound record is compared as
+ * received.
+ *
+ * @param <T> the type of the data record stored in the bin
+ */
+@JsonDeserialize(using = LazyBin.Deserializer.class)
+public class LazyBin<T> extends Bin<T> {
+
+    /**
+     * The reader attribute that makes the whole body the record, rather than a bin wrapping it. Set
+     * it to {@link Boolean#TRUE} with {@code ObjectReader.withAttribute}.
+     */
+    public static final String RECORD_ONLY = LazyBin.class.getName() + ".recordOnly";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /** The record's bytes, or {@code null} if its tokens were buffered instead. */
+    private final byte[] bytes;
+
+    /** The record's tokens, or {@code null} if its bytes were kept instead. */
+    private final TokenBuffer buffer;
+
+    private final ObjectCodec codec;
+
+    private final JavaType recordType;
+
+    private volatile boolean bound;
+
+    /** Whether {@link #setRecord} replaced the record as received. */
+    private volatile boolean replaced;
+
+    private LazyBin(TokenBuffer buffer, byte[] bytes, ObjectCodec codec, JavaType recordType) {
+        this.buffer = buffer;
+        this.bytes = bytes;
+        this.codec = codec;
+        this.recordType = recordType;
+    }
+
+    /**
+     * Returns the record, binding it on the first call.
+     *
+     * @throws JsonBinException if the record cannot be bound to {@code T}
+     */
+    @Override
+    public T getRecord() {
+        if (!bound) {
+            synchronized (this) {
+                if (!bound) {
+                    super.setRecord(bind(parser -> codec.readValue(parser, recordType)));
+                    bound = true;
+                }
+            }
+        }
+        return super.getRecord();
+    }
+
+    /** Replaces the record; the buffered one is no longer bound to {@code T}. */
+    @Override
+    public synchronized void setRecord(T record) {
+        super.setRecord(record);
+        bound = true;
+        replaced = true;
+    }
+
+    /**
+     * Copies the record as received to {@code generator}, without binding it.
+     *
+     * @return {@code false} if the response had no record, in which case nothing is written
+     * @throws IOException if the record cannot be copied
+     */
+    public boolean copyRecord(@NonNull JsonGenerator generator) throws IOException {
+        if (buffer == null && bytes == null) {
+            return false;
+        }
+
+        try (JsonParser parser = parser()) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+        generator.flush();
+        return true;
+    }
+
+    /**
+     * Binds the record as received to {@code type}. Every call binds a new instance.
+     *
+     * @return the record as {@code R}, or {@code null} if the response had none
+     * @throws JsonBinException if the record cannot be bound to {@code type}
+     */
+    public <R> R getRecord(@NonNull Class<R> type) {
+        return bind(parser -> codec.readValue(parser, type));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof LazyBin<?> bin)
+                || replaced != bin.replaced
+                || !Objects.equals(getMetadata(), bin.getMetadata())) {
+            return false;
+        }
+
+        return replaced
+                ? Objects.equals(super.getRecord(), bin.superRecord())
+                : Arrays.equals(received(), bin.received());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(getMetadata())
+                + (replaced ? Objects.hashCode(super.getRecord()) : Arrays.hashCode(received()));
+    }
+
+    /** Only other {@code LazyBin}s can be equal, so a {@link Bin} never binds one to compare. */
+    @Override
+    protected boolean canEqual(Object other) {
+        return other instanceof LazyBin;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyBin(record="
+                + (bound ? super.getRecord() : "<unbound>")
+                + ", metadata="
+                + getMetadata()
+                + ")";
+    }
+
+    private T superRecord() {
+        return super.getRecord();
+    }
+
+    /** Returns the record as received, as compact JSON, or {@code null} if there was none. */
+    private byte[] received() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            if (!copyRecord(generator)) {
+                return null;
+            }
+        } catch (IOException exception) {
+            throw new JsonBinException(exception.getMessage(), exception);
+        }
+        return out.toByteArray();
+    }
+
+    private <R> R bind(Binder<R> binder) {
+        if (buffer == null && bytes == null) {
+            return null;
+        }
+
+        try (JsonParser parser = parser()) {
+            return binder.bind(parser);
+        } catch (IOException exception) {
+            throw new JsonBinException(exception.getMessage(), exception);
+        }
+    }
+
+    private JsonParser parser() throws IOException {
+        return buffer != null ? buffer.asParser(codec) : codec.getFactory().createParser(bytes);
+    }
+
+    @FunctionalInterface
+    private interface Binder<R> {
+
+        R bind(JsonParser parser) throws IOException;
+    }
+
+    /** Keeps the {@code record} field unbound and binds the {@code metadata} field eagerly. */
+    static final class Deserializer extends JsonDeserializer<LazyBin<?>>
+            implements ContextualDeserializer {
+
+        private final JavaType recordType;
+
+        Deserializer() {
+            this(null);
+        }
+
+        private Deserializer(JavaType recordType) {
+            this.recordType = recordType;
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(
+                DeserializationContext ctxt, BeanProperty property) {
+            JavaType type = ctxt.getContextualType();
+            return new Deserializer(
+                    type == null || type.containedTypeCount() == 0
+                            ? ctxt.constructType(Object.class)
+                            : type.containedType(0));
+        }
+
+        @Override
+        public LazyBin<?> deserialize(JsonParser parser, DeserializationContext ctxt)
+                throws IOException {
+            if (Boolean.TRUE.equals(ctxt.getAttribute(RECORD_ONLY))) {
+                return readRecord(parser, ctxt);
+            }
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                return (LazyBin<?>) ctxt.handleUnexpectedToken(LazyBin.class, parser);
+            }
+
+            LazyBin<?> bin = null;
+            Metadata metadata = null;
+            for (String name = parser.nextFieldName();
+                    name != null;
+                    name = parser.nextFieldName()) {
+                parser.nextToken();
+                if (name.equals("record")) {
+                    bin = readRecord(parser, ctxt);
+                } else if (name.equals("metadata")) {
+                    metadata = ctxt.readValue(parser, Metadata.class);
+                } else {
+                    ctxt.handleUnknownProperty(parser, this, LazyBin.class, name);
+                }
+            }
+
+            if (bin == null) {
+                bin = new LazyBin<>(null, null, parser.getCodec(), recordType);
+            }
+            bin.setMetadata(metadata);
+            return bin;
+        }
+
+        @Override
+        public LazyBin<?> getNullValue(DeserializationContext ctxt) {
+            // A record-only body of null is a bin without a record, not a missing bin
+            return ctxt != null && Boolean.TRUE.equals(ctxt.getAttribute(RECORD_ONLY))
+                    ? new LazyBin<>(null, null, null, recordType)
+                    : null;
+        }
+
+        /** Keeps the value at the parser's current token unbound, as a bin's record. */
+        private LazyBin<?> readRecord(JsonParser parser, DeserializationContext ctxt)
+                throws IOException {
+            TokenBuffer buffer = null;
+            byte[] bytes = null;
+            if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                buffer = null;
+            } else if (parser.currentToken().isStructStart()
+                    && !parser.getCodec().getFactory().canHandleBinaryNatively()
+                    && parser.currentTokenLocation().contentReference().getRawContent()
+                            instanceof byte[] source) {
+                // Structures end on a token of their own, after which the location is past the
+                // record's last byte. Records of binary formats such as Smile cannot be parsed on
+                // their own, so their tokens are buffered instead
+                long start = parser.currentTokenLocation().getByteOffset();
+                parser.skipChildren();
+                long end = parser.currentLocation().getByteOffset();
+                bytes = Arrays.copyOfRange(source, (int) start, (int) end);
+            } else {
+                buffer = ctxt.bufferAsCopyOfValue(parser);
+            }
+            return new LazyBin<>(buffer, bytes, parser.getCodec(), recordType);
+        }
+    }
+}
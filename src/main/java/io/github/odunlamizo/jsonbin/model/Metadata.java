@@ -45,4 +45,11 @@ public class Metadata {
      * <p>This ID is used to associate the bin with a specific collection in JSONBIN.io.
      */
     private String collectionId;
+
+    /**
+     * The number of versions of the bin.
+     *
+     * <p>Only present in responses of the version count endpoint.
+     */
+    private Integer versionCount;
 }
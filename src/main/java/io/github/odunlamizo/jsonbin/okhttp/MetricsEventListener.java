@@ -0,0 +1,122 @@
+package io.github.odunlamizo.jsonbin.okhttp;
+
+import io.github.odunlamizo.jsonbin.metrics.JsonBinMetrics;
+import io.github.odunlamizo.jsonbin.metrics.JsonBinMetrics.Phase;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import lombok.NonNull;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Reports the phases of one OkHttp call to {@link JsonBinMetrics}. OkHttp creates a listener per
+ * call through {@link #factory(JsonBinMetrics)}, and calls it from one thread at a time.
+ *
+ * <p>OkHttp only reports when the response body starts and ends, and the client decodes the body
+ * while OkHttp reads it, so the {@link Phase#BODY_READ} phase reported here overlaps {@link
+ * Phase#DECODE}. It is the time from the first to the last byte of the body, not extra time.
+ */
+class MetricsEventListener extends EventListener {
+
+    private final JsonBinMetrics metrics;
+
+    private final String operation;
+
+    private long dnsStart;
+
+    private long connectStart;
+
+    private long secureConnectStart;
+
+    private long requestEnd;
+
+    private long responseBodyStart;
+
+    private boolean connected;
+
+    private MetricsEventListener(JsonBinMetrics metrics, String operation) {
+        this.metrics = metrics;
+        this.operation = operation;
+    }
+
+    static EventListener.Factory factory(JsonBinMetrics metrics) {
+        return call -> new MetricsEventListener(metrics, call.request().tag(String.class));
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(
+            @NonNull Call call,
+            @NonNull String domainName,
+            @NonNull List<InetAddress> inetAddressList) {
+        metrics.recordPhase(operation, Phase.DNS, System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(
+            @NonNull Call call,
+            @NonNull InetSocketAddress inetSocketAddress,
+            @NonNull Proxy proxy) {
+        connectStart = System.nanoTime();
+        connected = true;
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, Handshake handshake) {
+        metrics.recordPhase(operation, Phase.TLS, System.nanoTime() - secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(
+            @NonNull Call call,
+            @NonNull InetSocketAddress inetSocketAddress,
+            @NonNull Proxy proxy,
+            Protocol protocol) {
+        metrics.recordPhase(operation, Phase.CONNECT, System.nanoTime() - connectStart);
+    }
+
+    @Override
+    public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+        metrics.recordConnection(operation, !connected);
+    }
+
+    @Override
+    public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        metrics.recordPhase(operation, Phase.TIME_TO_FIRST_BYTE, System.nanoTime() - requestEnd);
+    }
+
+    @Override
+    public void responseBodyStart(@NonNull Call call) {
+        responseBodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        metrics.recordPhase(operation, Phase.BODY_READ, System.nanoTime() - responseBodyStart);
+    }
+}
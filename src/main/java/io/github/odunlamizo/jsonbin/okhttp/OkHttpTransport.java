@@ -0,0 +1,151 @@
+package io.github.odunlamizo.jsonbin.okhttp;
+
+import io.github.odunlamizo.jsonbin.transport.Transport;
+import io.github.odunlamizo.jsonbin.transport.TransportBody;
+import io.github.odunlamizo.jsonbin.transport.TransportRequest;
+import io.github.odunlamizo.jsonbin.transport.TransportResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import lombok.NonNull;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.http.HttpMethod;
+import okio.BufferedSink;
+
+/** {@link Transport} backed by an {@link OkHttpClient}. */
+public class OkHttpTransport implements Transport {
+
+    private final OkHttpClient client;
+
+    public OkHttpTransport(@NonNull OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        return new OkHttpResponse(client.newCall(toRequest(request)).execute());
+    }
+
+    /** Enqueues the call on the OkHttp dispatcher; cancelling the future cancels the call. */
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        Call call = client.newCall(toRequest(request));
+        CompletableFuture<TransportResponse> future = new CompletableFuture<>();
+        future.whenComplete(
+                (response, throwable) -> {
+                    if (future.isCancelled()) {
+                        call.cancel();
+                    }
+                });
+
+        call.enqueue(
+                new Callback() {
+                    @Override
+                    public void onFailure(@NonNull Call call, @NonNull IOException exception) {
+                        future.completeExceptionally(exception);
+                    }
+
+                    @Override
+                    public void onResponse(@NonNull Call call, @NonNull Response response) {
+                        if (!future.complete(new OkHttpResponse(response))) {
+                            response.close();
+                        }
+                    }
+                });
+
+        return future;
+    }
+
+    private static Request toRequest(TransportRequest request) {
+        Request.Builder requestBuilder =
+                new Request.Builder()
+                        .url(request.getUrl())
+                        .tag(String.class, request.getOperation());
+        request.getHeaders().forEach(requestBuilder::header);
+
+        RequestBody body = null;
+        if (request.getBody() != null) {
+            body = new TransportRequestBody(request.getBody());
+            if (request.getBody().contentEncoding() != null) {
+                requestBuilder.header("Content-Encoding", request.getBody().contentEncoding());
+            }
+        } else if (HttpMethod.requiresRequestBody(request.getMethod())) {
+            body = okhttp3.internal.Util.EMPTY_REQUEST;
+        }
+
+        return requestBuilder.method(request.getMethod(), body).build();
+    }
+
+    /** Lets the body write straight into the OkHttp {@link BufferedSink}. */
+    private static final class TransportRequestBody extends RequestBody {
+
+        private final TransportBody body;
+
+        private TransportRequestBody(TransportBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return MediaType.parse(body.contentType());
+        }
+
+        @Override
+        public long contentLength() {
+            return body.contentLength();
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return body.isOneShot();
+        }
+
+        @Override
+        public void writeTo(@NonNull BufferedSink sink) throws IOException {
+            body.writeTo(sink.outputStream());
+        }
+    }
+
+    private static final class OkHttpResponse implements TransportResponse {
+
+        private final Response response;
+
+        private OkHttpResponse(Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public int code() {
+            return response.code();
+        }
+
+        @Override
+        public String header(String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public long contentLength() {
+            ResponseBody body = response.body();
+            return body == null ? -1 : body.contentLength();
+        }
+
+        @Override
+        public InputStream body() {
+            ResponseBody body = response.body();
+            return body == null ? null : body.byteStream();
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.odunlamizo.jsonbin.transport;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Performs the HTTP exchanges of a JSONBin client.
+ *
+ * <p>A transport only moves bytes: authentication headers, serialization and error mapping are
+ * handled by the client. Implementations must be thread-safe.
+ */
+public interface Transport {
+
+    /**
+     * Executes {@code request} on the calling thread.
+     *
+     * @return the response; the caller must close it
+     * @throws IOException if the exchange fails before a response is received
+     */
+    TransportResponse execute(TransportRequest request) throws IOException;
+
+    /**
+     * Starts {@code request} without blocking.
+     *
+     * <p>The future completes with the response once its headers have arrived, or exceptionally
+     * with the {@link IOException} that ended the exchange. Cancelling the future cancels the
+     * exchange.
+     *
+     * @return a future of the response; the caller must close it
+     */
+    CompletableFuture<TransportResponse> executeAsync(TransportRequest request);
+}
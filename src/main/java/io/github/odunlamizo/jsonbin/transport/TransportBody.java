@@ -0,0 +1,51 @@
+package io.github.odunlamizo.jsonbin.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Request body that writes itself to the transport's output stream.
+ *
+ * <p>Bodies must be replayable: a transport may call {@link #writeTo(OutputStream)} more than once
+ * to retry or follow a redirect, and every call must write the same bytes. The exceptions are
+ * {@linkplain #isOneShot() one-shot} bodies, which must not be written twice.
+ */
+public interface TransportBody {
+
+    /** Returns the media type of the body. */
+    String contentType();
+
+    /** Returns the number of bytes {@link #writeTo(OutputStream)} writes, or -1 if unknown. */
+    default long contentLength() {
+        return -1;
+    }
+
+    /**
+     * Returns the {@code Content-Encoding} of the bytes {@link #writeTo(OutputStream)} writes, such
+     * as {@code gzip}, or {@code null} if they are not encoded.
+     */
+    default String contentEncoding() {
+        return null;
+    }
+
+    /**
+     * Returns whether the body can only be written once, such as one read from a caller's stream.
+     * Requests with a one-shot body are not retried.
+     */
+    default boolean isOneShot() {
+        return false;
+    }
+
+    /** Writes the body to {@code out} without closing it. */
+    void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * Opens the body for reading, for transports that pull request bodies instead of writing them
+     * out, or returns {@code null} if the body can only be written. Each call opens a new stream
+     * over the same bytes, except for one-shot bodies, which can only be opened or written once.
+     */
+    default InputStream openStream() throws IOException {
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.odunlamizo.jsonbin.transport;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/** Transport-neutral description of an HTTP request. */
+@Value
+@Builder
+public class TransportRequest {
+
+    /** The HTTP method, such as {@code GET} or {@code PUT}. */
+    @NonNull String method;
+
+    /** The absolute request URL. */
+    @NonNull String url;
+
+    /** Request headers, in insertion order. */
+    Map<String, String> headers;
+
+    /** The request body, or {@code null} when the request has none. */
+    TransportBody body;
+
+    /**
+     * The name of the {@code JsonBin} operation issuing the request, such as {@code readBin}, for
+     * transports that report metrics; may be {@code null}.
+     */
+    String operation;
+
+    /**
+     * Builds requests. The headers are collected here rather than by {@code @Singular}, whose
+     * generated code does not compile warning-free.
+     */
+    public static class TransportRequestBuilder {
+
+        private final Map<String, String> headers = new LinkedHashMap<>();
+
+        /** Adds a header, replacing any earlier value of the same name. */
+        public TransportRequestBuilder header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        /** Adds every header in {@code headers}. */
+        public TransportRequestBuilder headers(@NonNull Map<String, String> headers) {
+            this.headers.putAll(headers);
+            return this;
+        }
+
+        public TransportRequest build() {
+            return new TransportRequest(
+                    method,
+                    url,
+                    Collections.unmodifiableMap(new LinkedHashMap<>(headers)),
+                    body,
+                    operation);
+        }
+    }
+}
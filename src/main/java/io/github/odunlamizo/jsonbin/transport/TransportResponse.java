@@ -0,0 +1,29 @@
+package io.github.odunlamizo.jsonbin.transport;
+
+import java.io.Closeable;
+import java.io.InputStream;
+
+/** Transport-neutral view of an HTTP response whose body has not been read yet. */
+public interface TransportResponse extends Closeable {
+
+    /** Returns the HTTP status code. */
+    int code();
+
+    /** Returns the first value of the header {@code name}, or {@code null} if absent. */
+    String header(String name);
+
+    /** Returns the declared length of the body, or -1 if unknown. */
+    long contentLength();
+
+    /** Returns the body stream, or {@code null} if the response has no body. */
+    InputStream body();
+
+    /** Returns whether the status code is in the {@code 2xx} range. */
+    default boolean isSuccessful() {
+        return code() >= 200 && code() < 300;
+    }
+
+    /** Releases the connection held by this response. */
+    @Override
+    void close();
+}
@@ -0,0 +1,104 @@
+package io.github.odunlamizo.jsonbin.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams a JSON document and binds only the node a {@link JsonPointer} points to.
+ *
+ * <p>The document is walked token by token. Object members and array elements off the pointer's
+ * path are skipped with {@link JsonParser#skipChildren()}, so they are tokenized but never built
+ * into nodes or objects, and reading stops as soon as the target node has been bound.
+ */
+public final class JsonPointerReader {
+
+    private JsonPointerReader() {}
+
+    /**
+     * Reads the node at {@code pointer} in {@code jsonStream} with {@code reader}. The stream is
+     * closed once the node has been read.
+     *
+     * @return the bound node, or {@code null} if the document has no node at {@code pointer}
+     */
+    public static <T> T read(InputStream jsonStream, JsonPointer pointer, ObjectReader reader)
+            throws IOException {
+        try (JsonParser parser = reader.createParser(jsonStream)) {
+            return read(parser, pointer, reader);
+        }
+    }
+
+    /**
+     * Reads the node at {@code pointer} in {@code json} with {@code reader}.
+     *
+     * @return the bound node, or {@code null} if the document has no node at {@code pointer}
+     */
+    public static <T> T read(byte[] json, JsonPointer pointer, ObjectReader reader)
+            throws IOException {
+        try (JsonParser parser = reader.createParser(json)) {
+            return read(parser, pointer, reader);
+        }
+    }
+
+    private static <T> T read(JsonParser parser, JsonPointer pointer, ObjectReader reader)
+            throws IOException {
+        JsonToken token = parser.nextToken();
+        for (JsonPointer path = pointer; !path.matches(); path = path.tail()) {
+            if (token == JsonToken.START_OBJECT) {
+                token = seekProperty(parser, path.getMatchingProperty());
+            } else if (token == JsonToken.START_ARRAY && path.mayMatchElement()) {
+                token = seekElement(parser, path.getMatchingIndex());
+            } else {
+                token = null;
+            }
+
+            if (token == null) {
+                return null;
+            }
+        }
+
+        if (token == null || token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+
+        return reader.readValue(parser);
+    }
+
+    /**
+     * Advances past the members of the current object up to the value of {@code name}.
+     *
+     * @return the first token of that value, or {@code null} if the object has no such member
+     */
+    private static JsonToken seekProperty(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean match = name.equals(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (match) {
+                return value;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    /**
+     * Advances past the elements of the current array up to the one at {@code index}.
+     *
+     * @return the first token of that element, or {@code null} if the array is shorter
+     */
+    private static JsonToken seekElement(JsonParser parser, int index) throws IOException {
+        for (int i = 0; ; i++) {
+            JsonToken element = parser.nextToken();
+            if (element == null || element == JsonToken.END_ARRAY) {
+                return null;
+            }
+            if (i == index) {
+                return element;
+            }
+            parser.skipChildren();
+        }
+    }
+}
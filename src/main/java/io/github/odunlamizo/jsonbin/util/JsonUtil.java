@@ -1,21 +1,43 @@
 package io.github.odunlamizo.jsonbin.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.LazyBin;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public final class JsonUtil {
 
-    private static final ObjectMapper MAPPER;
+    private static final String BLACKBIRD_MODULE =
+            "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private static final Registry REGISTRY = new Registry(newMapper());
+
+    private static final ObjectMapper MAPPER = REGISTRY.mapper;
+
+    private static final ObjectWriter STREAM_WRITER;
+
+    private static volatile Registry blackbirdRegistry;
 
     static {
-        MAPPER = new ObjectMapper();
-        MAPPER.findAndRegisterModules();
-        MAPPER.registerModule(new JavaTimeModule()); // ensure JSR-310 support explicitly
-        // Ensure dates are handled as ISO-8601 strings (not timestamps)
-        MAPPER.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // Leave target streams open; they belong to the caller (e.g. an HTTP request sink)
+        STREAM_WRITER = MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     private JsonUtil() {}
@@ -25,7 +47,222 @@ public final class JsonUtil {
         return MAPPER.readValue(jsonData, valueTypeRef);
     }
 
+    public static <T> T toValue(byte[] jsonData, TypeReference<T> valueTypeRef) throws IOException {
+        return MAPPER.readValue(jsonData, valueTypeRef);
+    }
+
+    /**
+     * Deserializes JSON read straight from {@code jsonStream}, without first decoding it into a
+     * {@link String}. The stream is closed once the value has been read.
+     */
+    public static <T> T toValue(InputStream jsonStream, TypeReference<T> valueTypeRef)
+            throws IOException {
+        return MAPPER.readValue(jsonStream, valueTypeRef);
+    }
+
     public static <T> String toJson(T object) throws JsonProcessingException {
         return MAPPER.writeValueAsString(object);
     }
+
+    /**
+     * Serializes {@code object} as JSON directly into {@code outputStream}, without building an
+     * intermediate {@link String}. The stream is flushed but not closed.
+     */
+    public static <T> void writeJson(T object, OutputStream outputStream) throws IOException {
+        STREAM_WRITER.writeValue(outputStream, object);
+    }
+
+    /** Returns the registry of readers and writers built on the shared mapper. */
+    public static Registry registry() {
+        return REGISTRY;
+    }
+
+    /**
+     * Returns a registry whose mapper also has Jackson's Blackbird module, which replaces
+     * reflective bean access with generated lambdas. The mapper is created on first use.
+     *
+     * @throws IllegalStateException if {@code jackson-module-blackbird} is not on the classpath
+     */
+    public static Registry blackbirdRegistry() {
+        Registry registry = blackbirdRegistry;
+        if (registry == null) {
+            synchronized (JsonUtil.class) {
+                registry = blackbirdRegistry;
+                if (registry == null) {
+                    registry = new Registry(newBlackbirdMapper());
+                    blackbirdRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    /** Resolves readers and writers of the given record types ahead of the first request. */
+    public static void warmUp(Class<?>... recordTypes) {
+        REGISTRY.warmUp(recordTypes);
+    }
+
+    private static ObjectMapper newMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        // Blackbird is opt-in through blackbirdRegistry(), even when found on the classpath
+        for (Module module : ObjectMapper.findModules()) {
+            if (!module.getClass().getName().equals(BLACKBIRD_MODULE)) {
+                mapper.registerModule(module);
+            }
+        }
+        mapper.registerModule(new JavaTimeModule()); // ensure JSR-310 support explicitly
+        // Ensure dates are handled as ISO-8601 strings (not timestamps)
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    private static ObjectMapper newBlackbirdMapper() {
+        Module blackbird;
+        try {
+            blackbird =
+                    (Module) Class.forName(BLACKBIRD_MODULE).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError exception) {
+            throw new IllegalStateException(
+                    "jackson-module-blackbird must be on the classpath to enable Blackbird",
+                    exception);
+        }
+
+        ObjectMapper mapper = newMapper();
+        mapper.registerModule(blackbird);
+        return mapper;
+    }
+
+    /**
+     * Pre-built {@link ObjectReader}s and {@link ObjectWriter}s, resolved once per type.
+     *
+     * <p>Building a reader or writer resolves the type and looks up its (de)serializer, which
+     * {@code ObjectMapper.readValue} would otherwise repeat on every call. Readers and writers are
+     * immutable and safe to share between threads. Writers leave target streams open.
+     */
+    public static final class Registry {
+
+        private final ObjectMapper mapper;
+
+        private final ConcurrentMap<Class<?>, ObjectReader> binReaders = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Class<?>, ObjectReader> lazyBinReaders =
+                new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Class<?>, ObjectReader> lazyRecordReaders =
+                new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Class<?>, ObjectReader> projectionReaders =
+                new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Class<?>, Registry> formats = new ConcurrentHashMap<>();
+
+        private Registry(ObjectMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        /**
+         * Returns a registry whose mapper is configured like this one but reads and writes the
+         * format of {@code factory}, such as Smile or CBOR. It is created on first use, once per
+         * factory class; this registry itself is returned for a factory of its own format.
+         */
+        public Registry withFactory(JsonFactory factory) {
+            if (factory.getFormatName().equals(mapper.getFactory().getFormatName())) {
+                return this;
+            }
+            return formats.computeIfAbsent(
+                    factory.getClass(), type -> new Registry(mapper.copyWith(factory)));
+        }
+
+        /** Returns the reader of {@code Bin<recordType>}. */
+        public ObjectReader binReader(Class<?> recordType) {
+            return binReaders.computeIfAbsent(
+                    recordType,
+                    type ->
+                            mapper.readerFor(
+                                    mapper.getTypeFactory()
+                                            .constructParametricType(Bin.class, type)));
+        }
+
+        /**
+         * Returns the reader of {@code LazyBin<recordType>}, which leaves the record unbound until
+         * it is first accessed. Readers of textual formats keep the record's bytes; readers of
+         * binary formats, whose records cannot be sliced out, buffer its tokens.
+         */
+        public ObjectReader lazyBinReader(Class<?> recordType) {
+            return lazyBinReaders.computeIfAbsent(
+                    recordType,
+                    type -> {
+                        ObjectReader reader =
+                                mapper.readerFor(
+                                        mapper.getTypeFactory()
+                                                .constructParametricType(LazyBin.class, type));
+                        return mapper.getFactory().canHandleBinaryNatively()
+                                ? reader
+                                : reader.with(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION);
+                    });
+        }
+
+        /**
+         * Returns the reader of a {@code LazyBin<recordType>} out of a body that is the record
+         * itself, as fetched without metadata. The bin's metadata is left {@code null}.
+         */
+        public ObjectReader lazyRecordReader(Class<?> recordType) {
+            return lazyRecordReaders.computeIfAbsent(
+                    recordType,
+                    type -> lazyBinReader(type).withAttribute(LazyBin.RECORD_ONLY, Boolean.TRUE));
+        }
+
+        /**
+         * Returns the reader of {@code Bin<List<recordType>>}, the shape of a JSONPath projection.
+         * A projection that is a single value rather than an array is read as a one-element list.
+         */
+        public ObjectReader projectionReader(Class<?> recordType) {
+            return projectionReaders.computeIfAbsent(
+                    recordType,
+                    type ->
+                            mapper.readerFor(
+                                            mapper.getTypeFactory()
+                                                    .constructParametricType(
+                                                            Bin.class,
+                                                            mapper.getTypeFactory()
+                                                                    .constructCollectionType(
+                                                                            List.class, type)))
+                                    .with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY));
+        }
+
+        /** Returns the reader of {@code type}. */
+        public ObjectReader reader(Class<?> type) {
+            return readers.computeIfAbsent(
+                    type, key -> mapper.readerFor(mapper.getTypeFactory().constructType(key)));
+        }
+
+        /** Returns the reader of the type captured by {@code ref}. */
+        public ObjectReader reader(TypeReference<?> ref) {
+            return readers.computeIfAbsent(
+                    ref.getType(),
+                    type -> mapper.readerFor(mapper.getTypeFactory().constructType(type)));
+        }
+
+        /** Returns the writer of values whose runtime class is {@code type}. */
+        public ObjectWriter writer(Class<?> type) {
+            return writers.computeIfAbsent(
+                    type,
+                    key -> mapper.writerFor(key).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+        }
+
+        /**
+         * Builds the {@code Bin} reader and the record writer of every type in {@code recordTypes},
+         * so that the first request for them skips that work.
+         */
+        public void warmUp(Class<?>... recordTypes) {
+            for (Class<?> recordType : recordTypes) {
+                binReader(recordType);
+                writer(recordType);
+            }
+        }
+    }
 }
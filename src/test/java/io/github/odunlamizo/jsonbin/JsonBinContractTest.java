@@ -0,0 +1,868 @@
+package io.github.odunlamizo.jsonbin;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.odunlamizo.jsonbin.core.AbstractJsonBin;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import io.github.odunlamizo.jsonbin.model.CollectionRecord;
+import io.github.odunlamizo.jsonbin.model.LazyBin;
+import io.github.odunlamizo.jsonbin.model.User;
+import io.github.odunlamizo.jsonbin.model.UserList;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Behaviour every {@link JsonBin} transport binding must share. Subclasses supply the client under
+ * test.
+ */
+public abstract class JsonBinContractTest {
+
+    protected MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setup() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    /** Creates a builder of the client under test. */
+    protected abstract AbstractJsonBin.Builder<?> newBuilder();
+
+    /** Creates the client under test, pointed at {@code baseUrl} with a dummy master key. */
+    protected AbstractJsonBin newJsonBin(String baseUrl) {
+        return newBuilder().withMasterKey("dummy-key").withBaseUrl(baseUrl).build();
+    }
+
+    @Test
+    void shouldDeserializeValidBinResponse() {
+        String json =
+                """
+                {
+                  "record": {
+                    "users": [
+                      { "name": "Morounfoluwa Mary", "age": 19 }
+                    ]
+                  },
+                  "metadata": {
+                    "id": "abc123",
+                    "private": true,
+                    "createdAt": "2024-01-01T10:00:00Z",
+                    "name": "Test Bin"
+                  }
+                }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setBody(json)
+                        .addHeader("Content-Type", "application/json")
+                        .setResponseCode(200));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        Bin<UserList> result = jsonBin.readBin("test-bin-id", UserList.class);
+
+        assertNotNull(result);
+        assertEquals("abc123", result.getMetadata().getId());
+        assertTrue(result.getMetadata().is_private());
+        assertEquals("Test Bin", result.getMetadata().getName());
+
+        List<User> users = result.getRecord().getUsers();
+        assertEquals(1, users.size());
+        assertEquals("Morounfoluwa Mary", users.get(0).getName());
+        assertEquals(19, users.get(0).getAge());
+    }
+
+    @Test
+    void shouldThrowExceptionOnErrorResponse() {
+        String errorJson =
+                """
+                { "message": "Bin not found" }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setBody(errorJson)
+                        .addHeader("Content-Type", "application/json")
+                        .setResponseCode(404));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        JsonBinException exception =
+                assertThrows(
+                        JsonBinException.class,
+                        () -> jsonBin.readBin("invalid-id", UserList.class));
+
+        assertTrue(exception.getMessage().contains("Bin not found"));
+    }
+
+    @Test
+    void shouldCreateBinSuccessfully() {
+        String responseJson =
+                """
+                {
+                  "record": {
+                    "name": "Morounfoluwa Mary",
+                    "age": 19
+                  },
+                  "metadata": {
+                    "id": "new-bin-id",
+                    "private": false,
+                    "createdAt": "2024-01-01T10:00:00Z",
+                    "name": "Users Bin"
+                  }
+                }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody(responseJson)
+                        .addHeader("Content-Type", "application/json"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        User user = new User();
+        user.setName("Morounfoluwa Mary");
+        user.setAge(19);
+
+        Bin<User> result = jsonBin.createBin(user, "Users Bin", false, null);
+
+        assertNotNull(result);
+        assertEquals("new-bin-id", result.getMetadata().getId());
+        assertEquals("Users Bin", result.getMetadata().getName());
+        assertEquals("Morounfoluwa Mary", result.getRecord().getName());
+    }
+
+    @Test
+    void shouldUpdateBinSuccessfully() {
+        String responseJson =
+                """
+                {
+                  "record": {
+                    "name": "Updated Name",
+                    "age": 20
+                  },
+                  "metadata": {
+                    "id": "bin-id",
+                    "private": true,
+                    "createdAt": "2024-01-01T10:00:00Z"
+                  }
+                }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody(responseJson)
+                        .addHeader("Content-Type", "application/json"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        User user = new User();
+        user.setName("Updated Name");
+        user.setAge(20);
+
+        Bin<User> result = jsonBin.updateBin(user, "bin-id");
+
+        assertEquals("bin-id", result.getMetadata().getId());
+        assertEquals("Updated Name", result.getRecord().getName());
+    }
+
+    @Test
+    void shouldReadCollectionBins() {
+        String json =
+                """
+                [
+                  {
+                    "private": true,
+                    "snippetMeta": { "name": "dev" },
+                    "record": "bin-1",
+                    "createdAt": "2024-01-01T10:00:00Z"
+                  },
+                  {
+                    "private": false,
+                    "snippetMeta": { "name": "staging" },
+                    "record": "bin-2",
+                    "createdAt": "2024-01-02T10:00:00Z"
+                  }
+                ]
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody(json)
+                        .addHeader("Content-Type", "application/json"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        List<BinHandle> bins = jsonBin.readCollection("collection-id");
+
+        assertEquals(2, bins.size());
+        assertEquals("bin-1", bins.get(0).getId());
+        assertEquals("dev", bins.get(0).getSnippetMeta().getName());
+    }
+
+    @Test
+    void shouldStreamEveryCollectionPage() throws InterruptedException {
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody("[ { \"record\": \"bin-1\" }, { \"record\": \"bin-2\" } ]"));
+        mockWebServer.enqueue(
+                new MockResponse().setResponseCode(200).setBody("[ { \"record\": \"bin-3\" } ]"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        List<String> ids;
+        try (Stream<BinHandle> handles = jsonBin.streamCollection("collection-id")) {
+            ids = handles.map(BinHandle::getId).toList();
+        }
+
+        assertEquals(List.of("bin-1", "bin-2", "bin-3"), ids);
+        assertEquals("/c/collection-id/bins", mockWebServer.takeRequest().getPath());
+        assertEquals("/c/collection-id/bins/bin-2", mockWebServer.takeRequest().getPath());
+        assertEquals("/c/collection-id/bins/bin-3", mockWebServer.takeRequest().getPath());
+    }
+
+    @Test
+    void shouldReadEveryCollectionRecordConcurrently() {
+        mockWebServer.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request) {
+                        switch (request.getPath()) {
+                            case "/c/collection-id/bins":
+                                return new MockResponse()
+                                        .setBody(
+                                                "[ { \"record\": \"bin-1\" },"
+                                                        + " { \"record\": \"bin-2\" },"
+                                                        + " { \"record\": \"bin-3\" } ]");
+                            case "/b/bin-1":
+                                return new MockResponse()
+                                        .setBody("{ \"name\": \"John Doe\", \"age\": 22 }");
+                            case "/b/bin-3":
+                                return new MockResponse()
+                                        .setBody("{ \"name\": \"Jane Doe\", \"age\": 30 }");
+                            case "/c/collection-id/bins/bin-3":
+                                return new MockResponse().setBody("[]");
+                            default:
+                                return new MockResponse()
+                                        .setResponseCode(404)
+                                        .setBody("{ \"message\": \"Bin not found\" }");
+                        }
+                    }
+                });
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        Map<String, CollectionRecord<User>> records;
+        try (Stream<CollectionRecord<User>> stream =
+                jsonBin.readCollectionRecords("collection-id", User.class, 2)) {
+            records =
+                    stream.collect(
+                            Collectors.toMap(
+                                    record -> record.getHandle().getId(), record -> record));
+        }
+
+        assertEquals(3, records.size());
+        assertEquals("John Doe", records.get("bin-1").getRecord().getName());
+        assertEquals("Jane Doe", records.get("bin-3").getRecord().getName());
+        assertFalse(records.get("bin-2").isSuccessful());
+        assertEquals("Bin not found", records.get("bin-2").getError().getMessage());
+    }
+
+    @Test
+    void shouldCreateCollection() {
+        String json =
+                """
+                {
+                  "record": "collection-id",
+                  "metadata": {
+                    "createdAt": "2024-01-01T10:00:00Z"
+                  }
+                }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody(json)
+                        .addHeader("Content-Type", "application/json"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        Bin<String> result = jsonBin.createCollection("My Collection");
+
+        assertEquals("collection-id", result.getRecord());
+    }
+
+    @Test
+    void shouldReturnLazyBinsWhenEnabled() {
+        String json =
+                """
+                {
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "new-bin-id", "private": true }
+                }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin =
+                newBuilder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withLazyRecords(true)
+                        .build();
+
+        Bin<User> bin = jsonBin.createBin(new User(), "Test Bin", true, null);
+
+        assertInstanceOf(LazyBin.class, bin);
+        assertEquals("new-bin-id", bin.getMetadata().getId());
+        assertEquals("Morounfoluwa Mary", bin.getRecord().getName());
+    }
+
+    @Test
+    void shouldSendBinHeadersOnCreate() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        jsonBin.createBin(new User(), "Test Bin", true, "collection-id");
+
+        var recordedRequest = mockWebServer.takeRequest();
+
+        assertEquals("POST", recordedRequest.getMethod());
+        assertEquals("Test Bin", recordedRequest.getHeader(JsonBin.HEADER_BIN_NAME));
+        assertEquals("true", recordedRequest.getHeader(JsonBin.HEADER_BIN_PRIVATE));
+        assertEquals("collection-id", recordedRequest.getHeader(JsonBin.HEADER_COLLECTION_ID));
+    }
+
+    @Test
+    void shouldUpdateCollectionName() throws InterruptedException {
+        String json =
+                """
+                {
+                  "record": "collection-id",
+                  "metadata": {
+                    "createdAt": "2024-01-01T10:00:00Z"
+                  }
+                }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody(json)
+                        .addHeader("Content-Type", "application/json"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        Bin<String> result = jsonBin.updateCollection("collection-id", "New Name");
+
+        assertEquals("collection-id", result.getRecord());
+
+        var recordedRequest = mockWebServer.takeRequest();
+        assertEquals("PUT", recordedRequest.getMethod());
+        assertEquals("/c/collection-id/meta/name", recordedRequest.getPath());
+        assertEquals("New Name", recordedRequest.getHeader(JsonBin.HEADER_COLLECTION_NAME));
+    }
+
+    @Test
+    void shouldReadBinAsynchronously() {
+        String json =
+                """
+                {
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "async-bin", "private": false }
+                }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody(json)
+                        .addHeader("Content-Type", "application/json"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        AbstractJsonBin jsonBin = newJsonBin(mockUrl);
+
+        Bin<User> result = jsonBin.readBinAsync("async-bin", User.class).join();
+
+        assertEquals("async-bin", result.getMetadata().getId());
+        assertEquals("Morounfoluwa Mary", result.getRecord().getName());
+    }
+
+    @Test
+    void shouldCompleteExceptionallyOnAsyncErrorResponse() {
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(404)
+                        .setBody("{ \"message\": \"Bin not found\" }")
+                        .addHeader("Content-Type", "application/json"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        AbstractJsonBin jsonBin = newJsonBin(mockUrl);
+
+        CompletionException exception =
+                assertThrows(
+                        CompletionException.class,
+                        () -> jsonBin.readBinAsync("invalid-id", UserList.class).join());
+
+        assertInstanceOf(JsonBinException.class, exception.getCause());
+        assertTrue(exception.getCause().getMessage().contains("Bin not found"));
+    }
+
+    @Test
+    void shouldReplayStreamedBodyOnRedirect() throws InterruptedException {
+        String responseJson =
+                """
+                {
+                  "record": { "name": "Updated Name", "age": 20 },
+                  "metadata": { "id": "bin-id" }
+                }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse().setResponseCode(307).addHeader("Location", "/b/moved-bin-id"));
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody(responseJson)
+                        .addHeader("Content-Type", "application/json"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        User user = new User();
+        user.setName("Updated Name");
+        user.setAge(20);
+
+        Bin<User> result = jsonBin.updateBin(user, "bin-id");
+
+        assertEquals("Updated Name", result.getRecord().getName());
+
+        String expectedBody = "{\"name\":\"Updated Name\",\"age\":20}";
+        var first = mockWebServer.takeRequest();
+        var second = mockWebServer.takeRequest();
+        assertEquals("/b/bin-id", first.getPath());
+        assertEquals("/b/moved-bin-id", second.getPath());
+        assertEquals(expectedBody, first.getBody().readUtf8());
+        assertEquals(expectedBody, second.getBody().readUtf8());
+        assertEquals("application/json", second.getHeader("Content-Type"));
+    }
+
+    @Test
+    void shouldReadBinVersionCount() throws InterruptedException {
+        String json =
+                """
+                { "metadata": { "id": "bin-id", "private": true, "versionCount": 3 } }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        assertEquals(3, jsonBin.readBinVersionCount("bin-id"));
+        assertEquals("/b/bin-id/versions/count", mockWebServer.takeRequest().getPath());
+    }
+
+    @Test
+    void shouldReadRecordWithoutMetadata() throws InterruptedException {
+        String json =
+                """
+                { "users": [ { "name": "Morounfoluwa Mary", "age": 19 } ] }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        UserList record = jsonBin.readRecord("bin-id", UserList.class);
+
+        assertEquals("Morounfoluwa Mary", record.getUsers().get(0).getName());
+
+        var request = mockWebServer.takeRequest();
+        assertEquals("/b/bin-id", request.getPath());
+        assertEquals("false", request.getHeader(JsonBin.HEADER_BIN_META));
+    }
+
+    @Test
+    void shouldReadBinsWithoutMetadataWhenDisabledOnBuilder() throws InterruptedException {
+        String json =
+                """
+                { "users": [ { "name": "Morounfoluwa Mary", "age": 19 } ] }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        AbstractJsonBin jsonBin =
+                newBuilder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withBinMeta(false)
+                        .build();
+
+        Bin<UserList> bin = jsonBin.readBinAsync("bin-id", UserList.class).join();
+        User user = jsonBin.readBinAt("bin-id", "/users/0", User.class);
+
+        assertEquals("bin-id", bin.getMetadata().getId());
+        assertNull(bin.getMetadata().getCreatedAt());
+        assertEquals("Morounfoluwa Mary", bin.getRecord().getUsers().get(0).getName());
+        assertEquals(19, user.getAge());
+        assertEquals("false", mockWebServer.takeRequest().getHeader(JsonBin.HEADER_BIN_META));
+        assertEquals("false", mockWebServer.takeRequest().getHeader(JsonBin.HEADER_BIN_META));
+    }
+
+    @Test
+    void shouldReadLazyBinsWithoutMetadata() throws InterruptedException {
+        String json =
+                """
+                { "users": [ { "name": "Morounfoluwa Mary", "age": 19 } ] }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        AbstractJsonBin jsonBin =
+                newBuilder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withBinMeta(false)
+                        .withLazyRecords(true)
+                        .build();
+
+        Bin<UserList> bin = jsonBin.readBin("bin-id", UserList.class);
+        Bin<UserList> async = jsonBin.readBinAsync("bin-id", UserList.class).join();
+
+        assertInstanceOf(LazyBin.class, bin);
+        assertInstanceOf(LazyBin.class, async);
+        assertEquals("bin-id", bin.getMetadata().getId());
+        assertEquals(bin, async);
+        assertEquals("Morounfoluwa Mary", bin.getRecord().getUsers().get(0).getName());
+        assertEquals("false", mockWebServer.takeRequest().getHeader(JsonBin.HEADER_BIN_META));
+    }
+
+    @Test
+    void shouldReadJsonPathProjection() throws InterruptedException {
+        String json =
+                """
+                {
+                  "record": [ { "name": "John Doe", "age": 22 } ],
+                  "metadata": { "id": "bin-id", "private": true }
+                }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        Bin<List<User>> bin = jsonBin.readBin("bin-id", "$.users[?(@.age > 20)]", User.class);
+
+        assertEquals(1, bin.getRecord().size());
+        assertEquals("John Doe", bin.getRecord().get(0).getName());
+
+        var request = mockWebServer.takeRequest();
+        assertEquals("/b/bin-id", request.getPath());
+        assertEquals("$.users[?(@.age > 20)]", request.getHeader(JsonBin.HEADER_JSON_PATH));
+    }
+
+    @Test
+    void shouldReadNodeAtJsonPointer() {
+        String json =
+                """
+                {
+                  "metadata": { "id": "bin-id", "private": true },
+                  "record": {
+                    "users": [
+                      { "name": "Morounfoluwa Mary", "age": 19 },
+                      { "name": "John Doe", "age": 22 }
+                    ]
+                  }
+                }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        AbstractJsonBin jsonBin = newJsonBin(mockUrl);
+
+        User user = jsonBin.readBinAt("bin-id", "/users/1", User.class);
+        assertEquals("John Doe", user.getName());
+        assertEquals(22, user.getAge());
+
+        assertNull(jsonBin.readBinAtAsync("bin-id", "/users/2", User.class).join());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> jsonBin.readBinAt("bin-id", "users", User.class));
+    }
+
+    @Test
+    void shouldRelayRawBodies(@TempDir Path dir) throws Exception {
+        String body = "{\"record\":{\"name\":\"John Doe\"},\"metadata\":{\"id\":\"bin-id\"}}";
+        String record = "{\"name\":\"John Doe\"}";
+        for (int i = 0; i < 4; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(body));
+        }
+        mockWebServer.enqueue(
+                new MockResponse().setResponseCode(404).setBody("{\"message\":\"Bin not found\"}"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin = newJsonBin(mockUrl);
+
+        assertEquals(body, StandardCharsets.UTF_8.decode(jsonBin.readBinRaw("bin-id")).toString());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(record.length());
+        direct.put(record.getBytes(StandardCharsets.UTF_8)).flip();
+        Path file = Files.writeString(dir.resolve("record.json"), record);
+        assertEquals(
+                body,
+                StandardCharsets.UTF_8.decode(jsonBin.updateBinRaw("bin-id", direct)).toString());
+        assertEquals(0, direct.position());
+        jsonBin.updateBinRaw("bin-id", file);
+        jsonBin.updateBinRaw(
+                "bin-id", new ByteArrayInputStream(record.getBytes(StandardCharsets.UTF_8)));
+
+        JsonBinException exception =
+                assertThrows(JsonBinException.class, () -> jsonBin.readBinRaw("missing"));
+        assertEquals("Bin not found", exception.getMessage());
+
+        assertEquals("GET", mockWebServer.takeRequest().getMethod());
+        for (int i = 0; i < 3; i++) {
+            var request = mockWebServer.takeRequest();
+            assertEquals("PUT", request.getMethod());
+            assertEquals("/b/bin-id", request.getPath());
+            assertEquals(record, request.getBody().readUtf8());
+        }
+    }
+
+    @Test
+    void shouldStreamLargeRecordBodies() throws Exception {
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody("{\"record\":{},\"metadata\":{\"id\":\"bin-id\"}}"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        UserList users = new UserList();
+        users.setUsers(
+                Stream.iterate(0, i -> i + 1)
+                        .limit(5000)
+                        .map(
+                                i -> {
+                                    User user = new User();
+                                    user.setName("user-" + i);
+                                    user.setAge(i % 90);
+                                    return user;
+                                })
+                        .collect(Collectors.toList()));
+
+        newJsonBin(mockUrl).updateBin(users, "bin-id");
+
+        assertEquals(
+                users,
+                new ObjectMapper()
+                        .readValue(
+                                mockWebServer.takeRequest().getBody().readUtf8(), UserList.class));
+    }
+
+    @Test
+    void shouldFailRatherThanSendTruncatedRecordBodies() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        List<Object> record =
+                Stream.concat(
+                                Stream.generate(() -> (Object) Map.of("name", "padding"))
+                                        .limit(5000),
+                                Stream.of(new Unserializable()))
+                        .collect(Collectors.toList());
+
+        assertThrows(JsonBinException.class, () -> newJsonBin(mockUrl).updateBin(record, "bin-id"));
+    }
+
+    /** A record whose serialization fails part-way through the body. */
+    static final class Unserializable {
+
+        public String getName() {
+            throw new IllegalStateException("Not serializable");
+        }
+    }
+
+    @Test
+    void shouldNotRetryStreamedRawBodies() {
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(429)
+                        .addHeader("Retry-After", "0")
+                        .setBody("{\"message\": \"Too many requests\"}"));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin =
+                newBuilder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withMaxRetries(3)
+                        .build();
+
+        assertThrows(
+                JsonBinRateLimitException.class,
+                () ->
+                        jsonBin.updateBinRaw(
+                                "bin-id",
+                                new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void shouldCompressRequestBodiesAboveThreshold() throws Exception {
+        String responseJson =
+                """
+                {
+                  "record": { "name": "Updated Name", "age": 20 },
+                  "metadata": { "id": "bin-id" }
+                }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(responseJson));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(responseJson));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        User user = new User();
+        user.setName("Updated Name");
+        user.setAge(20);
+        String expectedBody = "{\"name\":\"Updated Name\",\"age\":20}";
+
+        newBuilder()
+                .withMasterKey("dummy-key")
+                .withBaseUrl(mockUrl)
+                .withRequestCompression(16)
+                .build()
+                .updateBin(user, "bin-id");
+        newBuilder()
+                .withMasterKey("dummy-key")
+                .withBaseUrl(mockUrl)
+                .withRequestCompression(1024)
+                .build()
+                .updateBin(user, "bin-id");
+
+        var compressed = mockWebServer.takeRequest();
+        assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+        assertEquals(expectedBody, gunzip(compressed.getBody().readByteArray()));
+
+        var plain = mockWebServer.takeRequest();
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals(expectedBody, plain.getBody().readUtf8());
+    }
+
+    @Test
+    void shouldInflateGzipResponses() throws Exception {
+        String json =
+                """
+                {
+                  "record": { "users": [ { "name": "Morounfoluwa Mary", "age": 19 } ] },
+                  "metadata": { "id": "bin-id" }
+                }
+                """;
+
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .addHeader("Content-Encoding", "gzip")
+                        .setBody(new Buffer().write(gzip(json))));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        Bin<UserList> bin = newJsonBin(mockUrl).readBin("bin-id", UserList.class);
+
+        assertEquals("Morounfoluwa Mary", bin.getRecord().getUsers().get(0).getName());
+        assertTrue(mockWebServer.takeRequest().getHeader("Accept-Encoding").contains("gzip"));
+    }
+
+    private static byte[] gzip(String value) throws IOException {
+        Buffer buffer = new Buffer();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer.outputStream())) {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return buffer.readByteArray();
+    }
+
+    private static String gunzip(byte[] value) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(value))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.odunlamizo.jsonbin;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.User;
+import io.github.odunlamizo.jsonbin.okhttp.JsonBinOkHttp;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindBufferTest {
+
+    private MockWebServer mockWebServer;
+
+    private JsonBinOkHttp jsonBin;
+
+    @BeforeEach
+    void setup() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+        jsonBin =
+                new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void shouldWriteOnlyNewestPendingRecordPerBin() throws InterruptedException {
+        String json =
+                """
+                {
+                  "record": { "name": "Third", "age": 3 },
+                  "metadata": { "id": "bin-id" }
+                }
+                """;
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        CompletableFuture<Bin<User>> first;
+        CompletableFuture<Bin<User>> third;
+        try (WriteBehindBuffer buffer = new WriteBehindBuffer(jsonBin, Duration.ofHours(1))) {
+            first = buffer.updateBin(user("First", 1), "bin-id");
+            buffer.updateBin(user("Second", 2), "bin-id");
+            third = buffer.updateBin(user("Third", 3), "bin-id");
+
+            buffer.flush().join();
+        }
+
+        assertSame(first.join(), third.join());
+        assertEquals("Third", first.join().getRecord().getName());
+        assertEquals(1, mockWebServer.getRequestCount());
+        assertEquals(
+                "{\"name\":\"Third\",\"age\":3}", mockWebServer.takeRequest().getBody().readUtf8());
+    }
+
+    @Test
+    void shouldFlushPendingRecordsOnClose() {
+        mockWebServer.enqueue(
+                new MockResponse().setResponseCode(500).setBody("{ \"message\": \"Boom\" }"));
+
+        WriteBehindBuffer buffer = new WriteBehindBuffer(jsonBin, Duration.ofHours(1));
+        CompletableFuture<Bin<User>> update = buffer.updateBin(user("Pending", 1), "bin-id");
+        buffer.close();
+
+        assertTrue(update.isDone());
+        CompletionException exception = assertThrows(CompletionException.class, update::join);
+        assertEquals("Boom", exception.getCause().getMessage());
+        assertThrows(IllegalStateException.class, () -> buffer.updateBin(new User(), "bin-id"));
+    }
+
+    private static User user(String name, int age) {
+        User user = new User();
+        user.setName(name);
+        user.setAge(age);
+        return user;
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.odunlamizo.jsonbin.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class BinCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    void shouldReturnCachedValueUntilTtlElapses() {
+        BinCache cache = new BinCache(1024, Duration.ofSeconds(10), ticker::get);
+
+        cache.put("bin-1", new byte[] {1, 2, 3});
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.get("bin-1"));
+
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertNull(cache.get("bin-1"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0, stats.getEntryCount());
+        assertEquals(0, stats.getTotalBytes());
+    }
+
+    @Test
+    void shouldClaimRefreshOncePerEntryWithinWindowBeforeExpiry() {
+        BinCache cache = new BinCache(1024, Duration.ofSeconds(10), ticker::get);
+        Duration window = Duration.ofSeconds(2);
+
+        cache.put("bin-1", new byte[] {1});
+        assertFalse(cache.claimRefresh("bin-1", window));
+
+        ticker.addAndGet(Duration.ofSeconds(8).toNanos());
+        assertTrue(cache.claimRefresh("bin-1", window));
+        assertFalse(cache.claimRefresh("bin-1", window));
+        assertNotNull(cache.get("bin-1"));
+
+        cache.releaseRefresh("bin-1");
+        assertTrue(cache.claimRefresh("bin-1", window));
+
+        cache.put("bin-1", new byte[] {2});
+        assertFalse(cache.claimRefresh("bin-1", window));
+        assertFalse(cache.claimRefresh("bin-2", window));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesToStayUnderByteBudget() {
+        BinCache cache = new BinCache(10, null, ticker::get);
+
+        cache.put("bin-1", new byte[4]);
+        cache.put("bin-2", new byte[4]);
+        cache.get("bin-1");
+        cache.put("bin-3", new byte[4]);
+
+        assertNotNull(cache.get("bin-1"));
+        assertNull(cache.get("bin-2"));
+        assertNotNull(cache.get("bin-3"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(8, stats.getTotalBytes());
+    }
+
+    @Test
+    void shouldNotCacheValuesLargerThanBudget() {
+        BinCache cache = new BinCache(4, null, ticker::get);
+
+        cache.put("bin-1", new byte[2]);
+        cache.put("bin-1", new byte[5]);
+
+        assertNull(cache.get("bin-1"));
+        assertEquals(0, cache.stats().getTotalBytes());
+    }
+
+    @Test
+    void shouldInvalidateEntry() {
+        BinCache cache = new BinCache(1024, Duration.ofMinutes(1), ticker::get);
+
+        cache.put("bin-1", new byte[] {1});
+        cache.invalidate("bin-1");
+
+        assertNull(cache.get("bin-1"));
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.odunlamizo.jsonbin.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.LazyBin;
+import io.github.odunlamizo.jsonbin.model.UserList;
+import io.github.odunlamizo.jsonbin.util.JsonUtil;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class CacheCodecTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void shouldRoundTripBodiesInEveryEncoding() throws IOException {
+        byte[] json = usersJson(200);
+
+        for (CacheEncoding encoding : CacheEncoding.values()) {
+            for (boolean compress : new boolean[] {false, true}) {
+                CacheCodec codec = CacheCodec.of(encoding, compress);
+
+                byte[] stored = codec.encode(json);
+                byte[] decoded = codec.decode(stored);
+
+                assertEquals(
+                        MAPPER.readTree(json),
+                        MAPPER.readTree(decoded),
+                        encoding + ", " + compress);
+                if (encoding != CacheEncoding.JSON || compress) {
+                    assertTrue(stored.length < json.length, encoding + ", " + compress);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldBindStoredBodiesWithReadersOfTheirFormat() throws IOException {
+        byte[] json = usersJson(200);
+
+        for (CacheEncoding encoding : CacheEncoding.values()) {
+            for (boolean compress : new boolean[] {false, true}) {
+                CacheCodec codec = CacheCodec.of(encoding, compress);
+                JsonUtil.Registry registry = JsonUtil.registry().withFactory(codec.factory());
+                byte[] stored = codec.encode(json);
+
+                Bin<UserList> bin = codec.read(registry.binReader(UserList.class), stored);
+                LazyBin<UserList> lazyBin =
+                        codec.read(registry.lazyBinReader(UserList.class), stored);
+
+                String label = encoding + ", " + compress;
+                assertEquals(200, bin.getRecord().getUsers().size(), label);
+                assertEquals("user-199", bin.getRecord().getUsers().get(199).getName(), label);
+                assertEquals("bin-id", bin.getMetadata().getId(), label);
+                assertEquals(bin.getRecord(), lazyBin.getRecord(), label);
+            }
+        }
+    }
+
+    @Test
+    void shouldShareRegistriesPerFormat() {
+        JsonUtil.Registry registry = JsonUtil.registry();
+        CacheCodec smile = CacheCodec.of(CacheEncoding.SMILE, false);
+
+        assertSame(
+                registry, registry.withFactory(CacheCodec.of(CacheEncoding.JSON, true).factory()));
+        assertSame(registry.withFactory(smile.factory()), registry.withFactory(smile.factory()));
+        assertNotSame(
+                registry.withFactory(smile.factory()),
+                registry.withFactory(CacheCodec.of(CacheEncoding.CBOR, false).factory()));
+    }
+
+    @Test
+    void shouldKeepJsonBodiesAsReceived() {
+        byte[] json = "{\"record\": {\"name\": \"Mary\"}}".getBytes(StandardCharsets.UTF_8);
+
+        CacheCodec codec = CacheCodec.of(CacheEncoding.JSON, false);
+
+        assertArrayEquals(json, codec.encode(json));
+        assertArrayEquals(json, codec.decode(json));
+    }
+
+    private static byte[] usersJson(int users) {
+        StringBuilder json = new StringBuilder("{\"record\":{\"users\":[");
+        for (int i = 0; i < users; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"user-")
+                    .append(i)
+                    .append("\",\"age\":")
+                    .append(i % 90)
+                    .append('}');
+        }
+        json.append("]},\"metadata\":{\"id\":\"bin-id\",\"private\":false}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
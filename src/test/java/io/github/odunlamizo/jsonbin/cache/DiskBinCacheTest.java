@@ -0,0 +1,85 @@
+package io.github.odunlamizo.jsonbin.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiskBinCacheTest {
+
+    @TempDir Path directory;
+
+    @Test
+    void shouldServeEntriesStoredByPreviousInstance() {
+        new DiskBinCache(directory, 1024).put("b/bin-1", new byte[] {1, 2, 3});
+
+        DiskBinCache reopened = new DiskBinCache(directory, 1024);
+
+        assertArrayEquals(new byte[] {1, 2, 3}, reopened.get("b/bin-1"));
+        assertNull(reopened.get("b/bin-2"));
+
+        CacheStats stats = reopened.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntryCount());
+        assertEquals(3, stats.getTotalBytes());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesAcrossRestarts() throws IOException {
+        DiskBinCache cache = new DiskBinCache(directory, 10);
+        cache.put("bin-1", new byte[4]);
+        cache.put("bin-2", new byte[4]);
+        ageFiles();
+        cache.get("bin-1");
+
+        DiskBinCache reopened = new DiskBinCache(directory, 10);
+        reopened.put("bin-3", new byte[4]);
+
+        assertNotNull(reopened.get("bin-1"));
+        assertNull(reopened.get("bin-2"));
+        assertNotNull(reopened.get("bin-3"));
+        assertEquals(1, reopened.stats().getEvictions());
+        assertEquals(2, countFiles());
+    }
+
+    @Test
+    void shouldDeleteInterruptedWritesOnOpen() throws IOException {
+        Files.write(directory.resolve("entry123.tmp"), new byte[] {1});
+
+        new DiskBinCache(directory, 1024);
+
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void shouldInvalidateEntry() throws IOException {
+        DiskBinCache cache = new DiskBinCache(directory, 1024);
+
+        cache.put("bin-1", new byte[] {1});
+        cache.invalidate("bin-1");
+
+        assertNull(cache.get("bin-1"));
+        assertEquals(0, countFiles());
+    }
+
+    /** Backdates every entry, so later accesses order strictly after it. */
+    private void ageFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+            }
+        }
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
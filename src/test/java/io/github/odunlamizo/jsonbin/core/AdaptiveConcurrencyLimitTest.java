@@ -0,0 +1,85 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    void shouldQueueRequestsOverTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 4);
+
+        CompletableFuture<AdaptiveConcurrencyLimit.Permit> first = limit.acquire();
+        CompletableFuture<AdaptiveConcurrencyLimit.Permit> second = limit.acquire();
+
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+
+        first.join().release();
+
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    void shouldGrowWhileFastAndHalveWhenRateLimited() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 16);
+
+        for (int i = 0; i < 40; i++) {
+            AdaptiveConcurrencyLimit.Permit permit = limit.acquire().join();
+            permit.onSuccess(1_000_000);
+            permit.release();
+        }
+
+        int grown = limit.limit();
+        assertTrue(grown > 4);
+
+        AdaptiveConcurrencyLimit.Permit permit = limit.acquire().join();
+        permit.onRateLimited();
+        permit.release();
+
+        assertEquals(grown / 2, limit.limit());
+    }
+
+    @Test
+    void shouldHalveOnDrops() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 16);
+
+        AdaptiveConcurrencyLimit.Permit permit = limit.acquire().join();
+        permit.onDropped();
+        permit.release();
+
+        assertEquals(4, limit.limit());
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyClimbs() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 10);
+
+        AdaptiveConcurrencyLimit.Permit fast = limit.acquire().join();
+        fast.onSuccess(1_000_000);
+        fast.release();
+
+        AdaptiveConcurrencyLimit.Permit slow = limit.acquire().join();
+        slow.onSuccess(10_000_000);
+        slow.release();
+
+        assertEquals(9, limit.limit());
+    }
+
+    @Test
+    void shouldSkipCancelledWaiters() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1);
+
+        AdaptiveConcurrencyLimit.Permit held = limit.acquire().join();
+        CompletableFuture<AdaptiveConcurrencyLimit.Permit> cancelled = limit.acquire();
+        CompletableFuture<AdaptiveConcurrencyLimit.Permit> waiting = limit.acquire();
+
+        cancelled.cancel(false);
+        held.release();
+
+        assertTrue(waiting.isDone());
+        assertFalse(waiting.isCompletedExceptionally());
+    }
+}
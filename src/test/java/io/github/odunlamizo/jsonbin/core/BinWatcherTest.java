@@ -0,0 +1,108 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.odunlamizo.jsonbin.BinWatch;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+class BinWatcherTest {
+
+    private static final long INTERVAL_NANOS = Duration.ofMillis(40).toNanos();
+
+    private final Map<String, String> bodies = new ConcurrentHashMap<>();
+
+    private final AtomicInteger polls = new AtomicInteger();
+
+    private final BinWatcher watcher =
+            new BinWatcher(
+                    INTERVAL_NANOS,
+                    INTERVAL_NANOS / 4,
+                    binId -> {
+                        polls.incrementAndGet();
+                        return CompletableFuture.completedFuture(
+                                bodies.get(binId).getBytes(StandardCharsets.UTF_8));
+                    },
+                    System::nanoTime);
+
+    @Test
+    void shouldOnlyHandOverChangedBodies() throws InterruptedException {
+        bodies.put("bin-1", "{\"v\":1}");
+        List<String> seen = new CopyOnWriteArrayList<>();
+
+        try (BinWatch watch = watcher.watch("bin-1", BinWatcherTest::string, seen::add)) {
+            assertEquals("bin-1", watch.getBinId());
+            awaitTrue(() -> polls.get() >= 4);
+            assertEquals(List.of("{\"v\":1}"), seen);
+
+            bodies.put("bin-1", "{\"v\":2}");
+            awaitTrue(() -> seen.size() == 2);
+            assertEquals("{\"v\":2}", seen.get(1));
+        }
+    }
+
+    @Test
+    void shouldPollSharedBinOnceAndStopWithLastWatch() throws InterruptedException {
+        bodies.put("bin-1", "{}");
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+
+        BinWatch firstWatch = watcher.watch("bin-1", BinWatcherTest::string, first::add);
+        awaitTrue(() -> first.size() == 1);
+        BinWatch secondWatch = watcher.watch("bin-1", BinWatcherTest::string, second::add);
+        awaitTrue(() -> second.size() == 1);
+
+        firstWatch.close();
+        secondWatch.close();
+        int pollsWhenClosed = polls.get();
+        Thread.sleep(Duration.ofNanos(INTERVAL_NANOS * 3).toMillis());
+
+        assertEquals(1, first.size());
+        assertTrue(polls.get() <= pollsWhenClosed + 1);
+    }
+
+    @Test
+    void shouldDecodeUnchangedBodyAgainAfterDecodingFailed() throws InterruptedException {
+        bodies.put("bin-1", "{\"v\":1}");
+        AtomicInteger decodes = new AtomicInteger();
+        List<String> seen = new CopyOnWriteArrayList<>();
+
+        try (BinWatch watch =
+                watcher.watch(
+                        "bin-1",
+                        body -> {
+                            if (decodes.incrementAndGet() == 1) {
+                                throw new IllegalStateException("Cannot decode");
+                            }
+                            return string(body);
+                        },
+                        seen::add)) {
+            awaitTrue(() -> seen.size() == 1);
+            awaitTrue(() -> polls.get() >= 6);
+
+            assertEquals("bin-1", watch.getBinId());
+            assertEquals(List.of("{\"v\":1}"), seen);
+            assertEquals(2, decodes.get());
+        }
+    }
+
+    private static String string(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(5);
+        }
+    }
+}
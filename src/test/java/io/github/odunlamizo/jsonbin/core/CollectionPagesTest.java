@@ -0,0 +1,79 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class CollectionPagesTest {
+
+    private final List<String> requests = new ArrayList<>();
+
+    private final Map<String, CompletableFuture<List<BinHandle>>> pageAfter = new HashMap<>();
+
+    private final CollectionPages pages =
+            new CollectionPages(
+                    lastBinId -> {
+                        requests.add(lastBinId);
+                        return page(lastBinId);
+                    });
+
+    @Test
+    void shouldPrefetchNextPageWhileCurrentOneIsConsumed() {
+        page(null).complete(handles("bin-1", "bin-2"));
+
+        assertTrue(requests.isEmpty());
+        assertEquals("bin-1", pages.next().getId());
+        assertEquals(Arrays.asList(null, "bin-2"), requests);
+        assertEquals("bin-2", pages.next().getId());
+
+        page("bin-2").complete(handles("bin-3"));
+        assertEquals("bin-3", pages.next().getId());
+
+        page("bin-3").complete(List.of());
+        assertFalse(pages.hasNext());
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    void shouldCancelPrefetchOnClose() {
+        page(null).complete(handles("bin-1"));
+        assertTrue(pages.hasNext());
+
+        pages.close();
+
+        assertTrue(page("bin-1").isCancelled());
+        assertFalse(pages.hasNext());
+    }
+
+    @Test
+    void shouldSurfaceFailedPageAsJsonBinException() {
+        page(null).completeExceptionally(new JsonBinException("Collection not found"));
+
+        JsonBinException exception = assertThrows(JsonBinException.class, pages::hasNext);
+
+        assertEquals("Collection not found", exception.getMessage());
+        assertFalse(pages.hasNext());
+    }
+
+    private CompletableFuture<List<BinHandle>> page(String lastBinId) {
+        return pageAfter.computeIfAbsent(lastBinId, key -> new CompletableFuture<>());
+    }
+
+    private static List<BinHandle> handles(String... ids) {
+        List<BinHandle> handles = new ArrayList<>();
+        for (String id : ids) {
+            BinHandle handle = new BinHandle();
+            handle.setId(id);
+            handles.add(handle);
+        }
+        return handles;
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import io.github.odunlamizo.jsonbin.model.CollectionRecord;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class CollectionRecordsTest {
+
+    private final List<String> started = new ArrayList<>();
+
+    private final Map<String, CompletableFuture<String>> reads = new HashMap<>();
+
+    @Test
+    void shouldBoundReadsInFlightAndYieldInCompletionOrder() {
+        CollectionRecords<String> records = records(2, "bin-1", "bin-2", "bin-3");
+
+        // bin-2 completes first, so it is handed out first and frees a slot for bin-3
+        readOf("bin-2").complete("two");
+        assertEquals("two", records.next().getRecord());
+        assertEquals(List.of("bin-1", "bin-2"), started);
+
+        readOf("bin-3").complete("three");
+        assertEquals("three", records.next().getRecord());
+        assertEquals(List.of("bin-1", "bin-2", "bin-3"), started);
+
+        readOf("bin-1").complete("one");
+        assertEquals("one", records.next().getRecord());
+        assertFalse(records.hasNext());
+    }
+
+    @Test
+    void shouldReportFailedReadsWithoutStoppingOthers() {
+        CollectionRecords<String> records = records(2, "bin-1", "bin-2");
+
+        readOf("bin-1").completeExceptionally(new JsonBinException("Bin not found"));
+        readOf("bin-2").complete("two");
+
+        CollectionRecord<String> failed = records.next();
+        assertFalse(failed.isSuccessful());
+        assertEquals("bin-1", failed.getHandle().getId());
+        assertEquals("Bin not found", failed.getError().getMessage());
+
+        CollectionRecord<String> read = records.next();
+        assertTrue(read.isSuccessful());
+        assertEquals("two", read.getRecord());
+        assertFalse(records.hasNext());
+    }
+
+    @Test
+    void shouldCancelReadsInFlightOnClose() {
+        CollectionRecords<String> records = records(2, "bin-1", "bin-2", "bin-3");
+        readOf("bin-1").complete("one");
+        assertTrue(records.hasNext());
+
+        records.close();
+
+        assertTrue(readOf("bin-2").isCancelled());
+        assertEquals(List.of("bin-1", "bin-2"), started);
+    }
+
+    private CollectionRecords<String> records(int parallelism, String... ids) {
+        List<BinHandle> handles = new ArrayList<>();
+        for (String id : ids) {
+            BinHandle handle = new BinHandle();
+            handle.setId(id);
+            handles.add(handle);
+        }
+        return new CollectionRecords<>(
+                handles.iterator(),
+                binId -> {
+                    started.add(binId);
+                    return readOf(binId);
+                },
+                parallelism);
+    }
+
+    private CompletableFuture<String> readOf(String binId) {
+        return reads.computeIfAbsent(binId, key -> new CompletableFuture<>());
+    }
+}
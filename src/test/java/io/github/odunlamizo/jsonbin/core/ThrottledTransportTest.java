@@ -0,0 +1,84 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.odunlamizo.jsonbin.transport.Transport;
+import io.github.odunlamizo.jsonbin.transport.TransportRequest;
+import io.github.odunlamizo.jsonbin.transport.TransportResponse;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+class ThrottledTransportTest {
+
+    private final List<CompletableFuture<TransportResponse>> exchanges =
+            new CopyOnWriteArrayList<>();
+
+    private final Transport delegate =
+            new Transport() {
+                @Override
+                public TransportResponse execute(TransportRequest request) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+                    CompletableFuture<TransportResponse> exchange = new CompletableFuture<>();
+                    exchanges.add(exchange);
+                    return exchange;
+                }
+            };
+
+    @Test
+    void shouldGiveBackSlotOfCancelledQueuedRequest() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1);
+        ThrottledTransport transport =
+                new ThrottledTransport(delegate, null, limit, 0, Duration.ofSeconds(30));
+        TransportRequest request =
+                TransportRequest.builder().method("GET").url("http://localhost/b/bin-id").build();
+
+        CompletableFuture<TransportResponse> first = transport.executeAsync(request);
+        CompletableFuture<TransportResponse> queued = transport.executeAsync(request);
+        assertEquals(1, exchanges.size());
+
+        queued.cancel(true);
+        exchanges.get(0).complete(new EmptyResponse());
+        first.join().close();
+
+        CompletableFuture<TransportResponse> next = transport.executeAsync(request);
+
+        assertEquals(2, exchanges.size());
+        exchanges.get(1).complete(new EmptyResponse());
+        next.join().close();
+        assertTrue(limit.acquire().isDone());
+    }
+
+    private static final class EmptyResponse implements TransportResponse {
+
+        @Override
+        public int code() {
+            return 200;
+        }
+
+        @Override
+        public String header(String name) {
+            return null;
+        }
+
+        @Override
+        public long contentLength() {
+            return 0;
+        }
+
+        @Override
+        public InputStream body() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public void close() {}
+    }
+}
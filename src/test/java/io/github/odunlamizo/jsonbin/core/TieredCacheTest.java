@@ -0,0 +1,28 @@
+package io.github.odunlamizo.jsonbin.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.odunlamizo.jsonbin.cache.BinCache;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class TieredCacheTest {
+
+    private static final byte[] BODY = {1, 2, 3};
+
+    private final TieredCache cache =
+            TieredCache.of(new BinCache(1024, Duration.ofMinutes(1)), null, "b/", true, null);
+
+    @Test
+    void shouldDropBodiesFetchedBeforeAnInvalidation() {
+        long generation = cache.generation("bin-1");
+        cache.invalidate("bin-1");
+        cache.put("bin-1", BODY, generation);
+
+        assertNull(cache.get("bin-1", () -> fail("Unexpected refresh")));
+
+        cache.put("bin-1", BODY, cache.generation("bin-1"));
+
+        assertArrayEquals(BODY, cache.get("bin-1", () -> fail("Unexpected refresh")));
+    }
+}
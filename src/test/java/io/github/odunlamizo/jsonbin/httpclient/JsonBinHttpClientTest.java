@@ -0,0 +1,56 @@
+package io.github.odunlamizo.jsonbin.httpclient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.odunlamizo.jsonbin.JsonBin;
+import io.github.odunlamizo.jsonbin.JsonBinContractTest;
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.core.AbstractJsonBin;
+import io.github.odunlamizo.jsonbin.model.User;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.Test;
+
+class JsonBinHttpClientTest extends JsonBinContractTest {
+
+    @Override
+    protected AbstractJsonBin.Builder<?> newBuilder() {
+        return new JsonBinHttpClient.Builder();
+    }
+
+    @Test
+    void shouldTimeOutStalledRequests() {
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(200)
+                        .setBody("{}")
+                        .setHeadersDelay(2, TimeUnit.SECONDS));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBin jsonBin =
+                new JsonBinHttpClient.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withRequestTimeout(Duration.ofMillis(200))
+                        .build();
+
+        JsonBinException exception =
+                assertThrows(JsonBinException.class, () -> jsonBin.readBin("bin-id", User.class));
+        assertInstanceOf(HttpTimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    void shouldRejectExecutorForSuppliedClient() {
+        JsonBinHttpClient.Builder builder =
+                new JsonBinHttpClient.Builder()
+                        .withMasterKey("dummy-key")
+                        .withHttpClient(HttpClient.newHttpClient())
+                        .withHttpExecutor(Runnable::run);
+
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.odunlamizo.jsonbin.inmemory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.odunlamizo.jsonbin.BinWatch;
+import io.github.odunlamizo.jsonbin.JsonBin;
+import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.cache.CacheEncoding;
+import io.github.odunlamizo.jsonbin.model.Bin;
+import io.github.odunlamizo.jsonbin.model.BinHandle;
+import io.github.odunlamizo.jsonbin.model.CollectionRecord;
+import io.github.odunlamizo.jsonbin.model.LazyBin;
+import io.github.odunlamizo.jsonbin.model.User;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class JsonBinInMemoryTest {
+
+    @Test
+    void shouldReadUpdateAndVersionBins() {
+        JsonBin jsonBin = new JsonBinInMemory.Builder().build();
+
+        Bin<User> created = jsonBin.createBin(user("John Doe", 22), "users", false, null);
+        String binId = created.getMetadata().getId();
+        jsonBin.updateBin(user("Jane Doe", 23), binId);
+
+        assertEquals("users", created.getMetadata().getName());
+        assertFalse(created.getMetadata().is_private());
+        assertEquals("Jane Doe", jsonBin.readBin(binId, User.class).getRecord().getName());
+        assertEquals("John Doe", jsonBin.readBin(binId, 1, User.class).getRecord().getName());
+        assertEquals(23, jsonBin.readRecord(binId, User.class).getAge());
+        assertEquals(2, jsonBin.readBinVersionCount(binId));
+        assertEquals("Jane Doe", jsonBin.readBinAt(binId, "/name", String.class));
+
+        JsonBinException missing =
+                assertThrows(JsonBinException.class, () -> jsonBin.readBin(binId, 3, User.class));
+        assertEquals("Bin version not found", missing.getMessage());
+        assertThrows(JsonBinException.class, () -> jsonBin.readBin("missing", User.class));
+    }
+
+    @Test
+    void shouldPageThroughCollections() {
+        JsonBin jsonBin = new JsonBinInMemory.Builder().withPageSize(2).build();
+
+        String collectionId = jsonBin.createCollection("people").getRecord();
+        List<String> binIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Bin<User> bin = jsonBin.createBin(user("user-" + i, i), null, null, collectionId);
+            binIds.add(bin.getMetadata().getId());
+        }
+
+        assertEquals(binIds.subList(0, 2), ids(jsonBin.readCollection(collectionId)));
+        try (Stream<BinHandle> handles = jsonBin.streamCollection(collectionId)) {
+            assertEquals(binIds, handles.map(BinHandle::getId).collect(Collectors.toList()));
+        }
+        try (Stream<CollectionRecord<User>> records =
+                jsonBin.readCollectionRecords(collectionId, User.class, 3)) {
+            assertEquals(10, records.mapToInt(record -> record.getRecord().getAge()).sum());
+        }
+
+        jsonBin.updateCollection(collectionId, "humans");
+        assertThrows(
+                JsonBinException.class,
+                () -> jsonBin.createBin(new User(), null, null, "missing-collection"));
+    }
+
+    @Test
+    void shouldKeepEveryConcurrentUpdate() {
+        JsonBinInMemory jsonBin = new JsonBinInMemory.Builder().build();
+
+        String binId = jsonBin.createBin(user("writer", 0), null, null, null).getMetadata().getId();
+        List<CompletableFuture<Bin<User>>> updates = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            updates.add(jsonBin.updateBinAsync(user("writer", i), binId));
+        }
+        updates.forEach(CompletableFuture::join);
+
+        assertEquals(201, jsonBin.readBinVersionCount(binId));
+    }
+
+    @Test
+    void shouldNotifyWatchersOfChangesOnly() throws InterruptedException {
+        JsonBin jsonBin =
+                new JsonBinInMemory.Builder()
+                        .withWatchInterval(Duration.ofMillis(20), Duration.ofMillis(5))
+                        .build();
+        String binId =
+                jsonBin.createBin(user("John Doe", 22), null, null, null).getMetadata().getId();
+        BlockingQueue<Bin<User>> changes = new LinkedBlockingQueue<>();
+
+        try (BinWatch watch = jsonBin.watch(binId, User.class, changes::add)) {
+            assertEquals(binId, watch.getBinId());
+            Bin<User> initial = changes.poll(5, TimeUnit.SECONDS);
+            assertEquals("John Doe", initial.getRecord().getName());
+            assertEquals(binId, initial.getMetadata().getId());
+
+            jsonBin.updateBin(user("Jane Doe", 23), binId);
+
+            assertEquals("Jane Doe", changes.poll(5, TimeUnit.SECONDS).getRecord().getName());
+            assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void shouldServeCachedBinsStoredAsSmile() {
+        JsonBinInMemory jsonBin =
+                new JsonBinInMemory.Builder()
+                        .withCache(Duration.ofMinutes(5), 1024 * 1024)
+                        .withCacheEncoding(CacheEncoding.SMILE, true)
+                        .build();
+        String binId =
+                jsonBin.createBin(user("John Doe", 22), null, null, null).getMetadata().getId();
+
+        jsonBin.readBin(binId, User.class);
+        Bin<User> cached = jsonBin.readBin(binId, User.class);
+
+        assertEquals("John Doe", cached.getRecord().getName());
+        assertEquals(binId, cached.getMetadata().getId());
+        assertEquals(22, jsonBin.readBinAt(binId, "/age", Integer.class));
+        assertEquals(2, jsonBin.cacheStats().getHits());
+    }
+
+    @Test
+    void shouldServeCachedBinsStoredAsCborOnMissAndHit() {
+        JsonBinInMemory jsonBin =
+                new JsonBinInMemory.Builder()
+                        .withCache(Duration.ofMinutes(5), 1024 * 1024)
+                        .withCacheEncoding(CacheEncoding.CBOR, false)
+                        .withLazyRecords(true)
+                        .build();
+        String binId =
+                jsonBin.createBin(user("John Doe", 22), null, null, null).getMetadata().getId();
+
+        Bin<User> missed = jsonBin.readBin(binId, User.class);
+        Bin<User> hit = jsonBin.readBin(binId, User.class);
+        String raw = StandardCharsets.UTF_8.decode(jsonBin.readBinRaw(binId)).toString();
+
+        assertEquals(1, jsonBin.cacheStats().getMisses());
+        assertEquals(2, jsonBin.cacheStats().getHits());
+        assertEquals(missed.getRecord(), hit.getRecord());
+        assertInstanceOf(LazyBin.class, hit);
+        assertEquals(binId, hit.getMetadata().getId());
+        assertTrue(raw.contains("\"John Doe\""), raw);
+    }
+
+    @Test
+    void shouldInjectLatency() {
+        JsonBin jsonBin =
+                new JsonBinInMemory.Builder()
+                        .withLatency(Duration.ofMillis(50), Duration.ofMillis(20))
+                        .build();
+
+        long start = System.nanoTime();
+        jsonBin.createCollection("slow");
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(elapsed >= Duration.ofMillis(50).toNanos());
+    }
+
+    @Test
+    void shouldInjectFailures() {
+        JsonBin failing = new JsonBinInMemory.Builder().withErrors(1, 503).build();
+
+        JsonBinException exception =
+                assertThrows(JsonBinException.class, () -> failing.createCollection("never"));
+        assertEquals("Injected failure", exception.getMessage());
+    }
+
+    @Test
+    void shouldNotApplyFailedWrites() {
+        JsonBin flaky =
+                new JsonBinInMemory.Builder()
+                        .withErrors(0.5, 500)
+                        .withSeed(42)
+                        .withPageSize(20)
+                        .build();
+
+        String collectionId = null;
+        while (collectionId == null) {
+            collectionId = attempt(() -> flaky.createCollection("flaky").getRecord());
+        }
+        String id = collectionId;
+        int created = 0;
+        for (int i = 0; i < 20; i++) {
+            if (attempt(() -> flaky.createBin(user("user", 0), null, null, id)) != null) {
+                created++;
+            }
+        }
+        List<BinHandle> handles = null;
+        while (handles == null) {
+            handles = attempt(() -> flaky.readCollection(id));
+        }
+
+        assertTrue(created > 0 && created < 20);
+        assertEquals(created, handles.size());
+    }
+
+    private static User user(String name, int age) {
+        User user = new User();
+        user.setName(name);
+        user.setAge(age);
+        return user;
+    }
+
+    /** Returns the result of {@code call}, or {@code null} if it failed. */
+    private static <T> T attempt(Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (JsonBinException exception) {
+            return null;
+        }
+    }
+
+    private static List<String> ids(List<BinHandle> handles) {
+        return handles.stream().map(BinHandle::getId).collect(Collectors.toList());
+    }
+}
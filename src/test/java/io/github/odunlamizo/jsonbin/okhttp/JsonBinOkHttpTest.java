@@ -3,296 +3,644 @@ package io.github.odunlamizo.jsonbin.okhttp;
 import static org.junit.jupiter.api.Assertions.*;
 
 import io.github.odunlamizo.jsonbin.JsonBin;
+import io.github.odunlamizo.jsonbin.JsonBinContractTest;
 import io.github.odunlamizo.jsonbin.JsonBinException;
+import io.github.odunlamizo.jsonbin.JsonBinRateLimitException;
+import io.github.odunlamizo.jsonbin.cache.CacheStats;
+import io.github.odunlamizo.jsonbin.core.AbstractJsonBin;
+import io.github.odunlamizo.jsonbin.metrics.MicrometerJsonBinMetrics;
 import io.github.odunlamizo.jsonbin.model.Bin;
 import io.github.odunlamizo.jsonbin.model.BinHandle;
 import io.github.odunlamizo.jsonbin.model.User;
-import io.github.odunlamizo.jsonbin.model.UserList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
-import okhttp3.mockwebserver.MockWebServer;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
-class JsonBinOkHttpTest {
+class JsonBinOkHttpTest extends JsonBinContractTest {
 
-    private MockWebServer mockWebServer;
-
-    @BeforeEach
-    void setup() throws Exception {
-        mockWebServer = new MockWebServer();
-        mockWebServer.start();
-    }
-
-    @AfterEach
-    void teardown() throws Exception {
-        mockWebServer.shutdown();
+    @Override
+    protected AbstractJsonBin.Builder<?> newBuilder() {
+        return new JsonBinOkHttp.Builder();
     }
 
     @Test
-    void shouldDeserializeValidBinResponse() {
+    void shouldFailFastWhenResponseExceedsMaxBodySize() {
         String json =
                 """
                 {
-                  "record": {
-                    "users": [
-                      { "name": "Morounfoluwa Mary", "age": 19 }
-                    ]
-                  },
-                  "metadata": {
-                    "id": "abc123",
-                    "private": true,
-                    "createdAt": "2024-01-01T10:00:00Z",
-                    "name": "Test Bin"
-                  }
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "large-bin" }
                 }
                 """;
 
         mockWebServer.enqueue(
                 new MockResponse()
+                        .setResponseCode(200)
                         .setBody(json)
-                        .addHeader("Content-Type", "application/json")
-                        .setResponseCode(200));
+                        .addHeader("Content-Type", "application/json"));
 
         String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
 
         JsonBin jsonBin =
-                new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withMaxBodySize(16)
+                        .build();
+
+        JsonBinException exception =
+                assertThrows(
+                        JsonBinException.class, () -> jsonBin.readBin("large-bin", User.class));
+
+        assertTrue(exception.getMessage().contains("exceeds maximum size"));
+    }
+
+    @Test
+    void shouldServeCachedBinUntilUpdated() {
+        String json =
+                """
+                {
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "cached-bin" }
+                }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withCache(Duration.ofMinutes(5), 1024 * 1024)
+                        .build();
+
+        jsonBin.readBin("cached-bin", User.class);
+        Bin<User> cached = jsonBin.readBin("cached-bin", User.class);
+
+        assertEquals("Morounfoluwa Mary", cached.getRecord().getName());
+        assertEquals(1, mockWebServer.getRequestCount());
+
+        jsonBin.updateBin(new User(), "cached-bin");
+        jsonBin.readBin("cached-bin", User.class);
+
+        assertEquals(3, mockWebServer.getRequestCount());
+
+        CacheStats stats = jsonBin.cacheStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    void shouldNotCacheBodyFetchedBeforeConcurrentUpdate() throws InterruptedException {
+        String stale =
+                """
+                { "record": { "name": "Stale", "age": 19 }, "metadata": { "id": "bin-id" } }
+                """;
+        String fresh =
+                """
+                { "record": { "name": "Fresh", "age": 20 }, "metadata": { "id": "bin-id" } }
+                """;
+        CountDownLatch fetched = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        mockWebServer.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(RecordedRequest request)
+                            throws InterruptedException {
+                        if (request.getMethod().equals("PUT")) {
+                            return new MockResponse().setResponseCode(200).setBody(fresh);
+                        }
+                        if (reads.incrementAndGet() > 1) {
+                            return new MockResponse().setResponseCode(200).setBody(fresh);
+                        }
+                        // The bin is fetched, then written to before its body reaches the cache
+                        fetched.countDown();
+                        assertTrue(updated.await(5, TimeUnit.SECONDS));
+                        return new MockResponse().setResponseCode(200).setBody(stale);
+                    }
+                });
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withCache(Duration.ofMinutes(5), 1024 * 1024)
+                        .build();
+
+        CompletableFuture<Bin<User>> inFlight = jsonBin.readBinAsync("bin-id", User.class);
+        assertTrue(fetched.await(5, TimeUnit.SECONDS));
+        jsonBin.updateBin(new User(), "bin-id");
+        updated.countDown();
+
+        assertEquals("Stale", inFlight.join().getRecord().getName());
+        assertEquals("Fresh", jsonBin.readBin("bin-id", User.class).getRecord().getName());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void shouldRefreshHotBinAheadOfExpiry() throws InterruptedException {
+        String stale =
+                """
+                { "record": { "name": "Stale", "age": 19 }, "metadata": { "id": "bin-id" } }
+                """;
+        String fresh =
+                """
+                { "record": { "name": "Fresh", "age": 20 }, "metadata": { "id": "bin-id" } }
+                """;
 
-        Bin<UserList> result = jsonBin.readBin("test-bin-id", UserList.class);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(stale));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(fresh));
 
-        assertNotNull(result);
-        assertEquals("abc123", result.getMetadata().getId());
-        assertTrue(result.getMetadata().is_private());
-        assertEquals("Test Bin", result.getMetadata().getName());
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
 
-        List<User> users = result.getRecord().getUsers();
-        assertEquals(1, users.size());
-        assertEquals("Morounfoluwa Mary", users.get(0).getName());
-        assertEquals(19, users.get(0).getAge());
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withCache(Duration.ofSeconds(2), 1024 * 1024)
+                        .withRefreshAhead(Duration.ofMillis(1500), 10)
+                        .build();
+
+        jsonBin.readBin("bin-id", User.class);
+        Thread.sleep(600);
+
+        // Inside the window: served from the cache while it is reloaded
+        assertEquals("Stale", jsonBin.readBin("bin-id", User.class).getRecord().getName());
+        mockWebServer.takeRequest();
+        assertNotNull(mockWebServer.takeRequest(5, TimeUnit.SECONDS));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        String name = "Stale";
+        while (name.equals("Stale") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            name = jsonBin.readBin("bin-id", User.class).getRecord().getName();
+        }
+
+        assertEquals("Fresh", name);
+        assertEquals(2, mockWebServer.getRequestCount());
     }
 
     @Test
-    void shouldThrowExceptionOnErrorResponse() {
-        String errorJson =
+    void shouldRefreshAheadAgainAfterFailedRefresh() throws InterruptedException {
+        String stale =
+                """
+                { "record": { "name": "Stale", "age": 19 }, "metadata": { "id": "bin-id" } }
+                """;
+        String fresh =
                 """
-                { "message": "Bin not found" }
+                { "record": { "name": "Fresh", "age": 20 }, "metadata": { "id": "bin-id" } }
                 """;
 
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(stale));
         mockWebServer.enqueue(
-                new MockResponse()
-                        .setBody(errorJson)
-                        .addHeader("Content-Type", "application/json")
-                        .setResponseCode(404));
+                new MockResponse().setResponseCode(500).setBody("{\"message\":\"Down\"}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(fresh));
 
         String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
 
-        JsonBin jsonBin =
-                new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withCache(Duration.ofSeconds(2), 1024 * 1024)
+                        .withRefreshAhead(Duration.ofMillis(1500), 10)
+                        .build();
+
+        jsonBin.readBin("bin-id", User.class);
+        Thread.sleep(600);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        String name = "Stale";
+        while (name.equals("Stale") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            name = jsonBin.readBin("bin-id", User.class).getRecord().getName();
+        }
+
+        assertEquals("Fresh", name);
+        assertEquals(1, jsonBin.failedRefreshes());
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
 
-        JsonBinException exception =
-                assertThrows(
-                        JsonBinException.class,
-                        () -> jsonBin.readBin("invalid-id", UserList.class));
+    @Test
+    void shouldServeBinsFromDiskAfterRestartAndRefreshThem(@TempDir Path directory)
+            throws InterruptedException {
+        String stale =
+                """
+                { "record": { "name": "Stale", "age": 19 }, "metadata": { "id": "bin-id" } }
+                """;
+        String fresh =
+                """
+                { "record": { "name": "Fresh", "age": 20 }, "metadata": { "id": "bin-id" } }
+                """;
 
-        assertTrue(exception.getMessage().contains("Bin not found"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(stale));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(fresh));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        Supplier<JsonBinOkHttp> newJsonBin =
+                () ->
+                        new JsonBinOkHttp.Builder()
+                                .withMasterKey("dummy-key")
+                                .withBaseUrl(mockUrl)
+                                .withCache(Duration.ofMinutes(5), 1024 * 1024)
+                                .withDiskCache(directory, 1024 * 1024)
+                                .build();
+
+        newJsonBin.get().readBin("bin-id", User.class);
+        mockWebServer.takeRequest();
+
+        JsonBinOkHttp restarted = newJsonBin.get();
+
+        assertEquals("Stale", restarted.readBin("bin-id", User.class).getRecord().getName());
+        assertNotNull(mockWebServer.takeRequest(5, TimeUnit.SECONDS));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"Fresh".equals(restarted.readBin("bin-id", User.class).getRecord().getName())) {
+            assertTrue(System.nanoTime() < deadline, "bin was not refreshed");
+            Thread.sleep(10);
+        }
+        assertEquals(2, mockWebServer.getRequestCount());
+        assertEquals(1, restarted.diskCacheStats().getHits());
     }
 
     @Test
-    void shouldCreateBinSuccessfully() {
-        String responseJson =
+    void shouldCoalesceConcurrentReadsOfSameBin() throws Exception {
+        String json =
                 """
                 {
-                  "record": {
-                    "name": "Morounfoluwa Mary",
-                    "age": 19
-                  },
-                  "metadata": {
-                    "id": "new-bin-id",
-                    "private": false,
-                    "createdAt": "2024-01-01T10:00:00Z",
-                    "name": "Users Bin"
-                  }
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "hot-bin" }
                 }
                 """;
 
         mockWebServer.enqueue(
                 new MockResponse()
                         .setResponseCode(200)
-                        .setBody(responseJson)
-                        .addHeader("Content-Type", "application/json"));
+                        .setBody(json)
+                        .setHeadersDelay(500, TimeUnit.MILLISECONDS));
 
         String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
 
         JsonBin jsonBin =
-                new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withRequestCoalescing(true)
+                        .build();
+
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Bin<User>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(
+                        pool.submit(
+                                () -> {
+                                    start.await();
+                                    return jsonBin.readBin("hot-bin", User.class);
+                                }));
+            }
+            start.countDown();
+
+            Bin<User> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Bin<User>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
 
-        User user = new User();
-        user.setName("Morounfoluwa Mary");
-        user.setAge(19);
+    @Test
+    void shouldShareFailureWithCoalescedAsyncReads() {
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(404)
+                        .setBody("{ \"message\": \"Bin not found\" }")
+                        .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withRequestCoalescing(true)
+                        .build();
 
-        Bin<User> result = jsonBin.createBin(user, "Users Bin", false, null);
+        CompletableFuture<List<BinHandle>> first = jsonBin.readCollectionAsync("collection-id");
+        CompletableFuture<List<BinHandle>> second = jsonBin.readCollectionAsync("collection-id");
 
-        assertNotNull(result);
-        assertEquals("new-bin-id", result.getMetadata().getId());
-        assertEquals("Users Bin", result.getMetadata().getName());
-        assertEquals("Morounfoluwa Mary", result.getRecord().getName());
+        assertThrows(CompletionException.class, first::join);
+        CompletionException exception = assertThrows(CompletionException.class, second::join);
+        assertTrue(exception.getCause().getMessage().contains("Bin not found"));
+        assertEquals(1, mockWebServer.getRequestCount());
     }
 
     @Test
-    void shouldUpdateBinSuccessfully() {
-        String responseJson =
+    void shouldReadVersionsOnceThroughVersionCache() throws InterruptedException {
+        String json =
                 """
                 {
-                  "record": {
-                    "name": "Updated Name",
-                    "age": 20
-                  },
-                  "metadata": {
-                    "id": "bin-id",
-                    "private": true,
-                    "createdAt": "2024-01-01T10:00:00Z"
-                  }
+                  "record": { "name": "Morounfoluwa Mary", "age": 18 },
+                  "metadata": { "id": "bin-id" }
                 }
                 """;
 
-        mockWebServer.enqueue(
-                new MockResponse()
-                        .setResponseCode(200)
-                        .setBody(responseJson)
-                        .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
 
         String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
 
-        JsonBin jsonBin =
-                new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withVersionCache(1024 * 1024)
+                        .build();
+
+        Bin<User> first = jsonBin.readBin("bin-id", 2, User.class);
+        Bin<User> second = jsonBin.readBin("bin-id", 2, User.class);
+
+        assertEquals(18, first.getRecord().getAge());
+        assertEquals(18, second.getRecord().getAge());
+        assertEquals("/b/bin-id/2", mockWebServer.takeRequest().getPath());
+        assertEquals(1, mockWebServer.getRequestCount());
+        assertEquals(1, jsonBin.versionCacheStats().getHits());
+    }
 
-        User user = new User();
-        user.setName("Updated Name");
-        user.setAge(20);
+    @Test
+    void shouldSkipUpdatesWithUnchangedRecord() {
+        String json =
+                """
+                {
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "bin-id" }
+                }
+                """;
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withWriteDeduplication(100)
+                        .build();
+
+        User user = jsonBin.readBin("bin-id", User.class).getRecord();
+
+        Bin<User> skipped = jsonBin.updateBin(user, "bin-id");
 
-        Bin<User> result = jsonBin.updateBin(user, "bin-id");
+        assertSame(user, skipped.getRecord());
+        assertEquals("bin-id", skipped.getMetadata().getId());
+        assertEquals(1, mockWebServer.getRequestCount());
+        assertEquals(1, jsonBin.skippedWrites());
 
-        assertEquals("bin-id", result.getMetadata().getId());
-        assertEquals("Updated Name", result.getRecord().getName());
+        user.setAge(20);
+        jsonBin.updateBin(user, "bin-id");
+
+        assertEquals(2, mockWebServer.getRequestCount());
+        assertEquals(1, jsonBin.skippedWrites());
     }
 
     @Test
-    void shouldReadCollectionBins() {
+    void shouldSkipUpdatesOfLazyRecordsWithoutBindingThem() {
         String json =
                 """
-                [
-                  {
-                    "private": true,
-                    "snippetMeta": { "name": "dev" },
-                    "record": "bin-1",
-                    "createdAt": "2024-01-01T10:00:00Z"
-                  },
-                  {
-                    "private": false,
-                    "snippetMeta": { "name": "staging" },
-                    "record": "bin-2",
-                    "createdAt": "2024-01-02T10:00:00Z"
-                  }
-                ]
+                {
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "bin-id" }
+                }
                 """;
 
-        mockWebServer.enqueue(
-                new MockResponse()
-                        .setResponseCode(200)
-                        .setBody(json)
-                        .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
 
         String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
 
-        JsonBin jsonBin =
-                new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withWriteDeduplication(100)
+                        .withLazyRecords(true)
+                        .build();
 
-        List<BinHandle> bins = jsonBin.readCollection("collection-id");
+        Bin<User> bin = jsonBin.readBin("bin-id", User.class);
 
-        assertEquals(2, bins.size());
-        assertEquals("bin-1", bins.get(0).getId());
-        assertEquals("dev", bins.get(0).getSnippetMeta().getName());
+        assertTrue(bin.toString().contains("<unbound>"));
+
+        User user = new User();
+        user.setName("Morounfoluwa Mary");
+        user.setAge(19);
+        jsonBin.updateBin(user, "bin-id");
+
+        assertEquals(1, mockWebServer.getRequestCount());
+        assertEquals(1, jsonBin.skippedWrites());
     }
 
     @Test
-    void shouldCreateCollection() {
+    void shouldRetryRateLimitedRequestAfterRetryAfter() throws Exception {
         String json =
                 """
                 {
-                  "record": "collection-id",
-                  "metadata": {
-                    "createdAt": "2024-01-01T10:00:00Z"
-                  }
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "bin-id" }
                 }
                 """;
 
         mockWebServer.enqueue(
                 new MockResponse()
-                        .setResponseCode(200)
-                        .setBody(json)
-                        .addHeader("Content-Type", "application/json"));
+                        .setResponseCode(429)
+                        .addHeader("Retry-After", "0")
+                        .setBody("{\"message\": \"Too many requests\"}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(429)
+                        .addHeader("Retry-After", "0")
+                        .setBody("{\"message\": \"Too many requests\"}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+
+        String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+
+        JsonBinOkHttp jsonBin =
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withRateLimit(100, 10)
+                        .withAdaptiveConcurrency(2, 8)
+                        .withMaxRetries(1)
+                        .build();
+
+        assertEquals(
+                "Morounfoluwa Mary", jsonBin.readBin("bin-id", User.class).getRecord().getName());
+        assertEquals(
+                "Morounfoluwa Mary",
+                jsonBin.readBinAsync("bin-id", User.class)
+                        .get(5, TimeUnit.SECONDS)
+                        .getRecord()
+                        .getName());
+        assertEquals(4, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void shouldFailWithRetryAfterWhenRetriesRunOut() {
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(429)
+                        .addHeader("Retry-After", "7")
+                        .setBody("{\"message\": \"Too many requests\"}"));
 
         String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
 
         JsonBin jsonBin =
                 new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
 
-        Bin<String> result = jsonBin.createCollection("My Collection");
+        JsonBinRateLimitException exception =
+                assertThrows(
+                        JsonBinRateLimitException.class,
+                        () -> jsonBin.readBin("bin-id", User.class));
 
-        assertEquals("collection-id", result.getRecord());
+        assertEquals("Too many requests", exception.getMessage());
+        assertEquals(Duration.ofSeconds(7), exception.getRetryAfter());
     }
 
     @Test
-    void shouldSendBinHeadersOnCreate() throws InterruptedException {
-        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+    void shouldFailFastWhenRetryAfterExceedsMaxRetryDelay() {
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .setResponseCode(429)
+                        .addHeader("Retry-After", "3600")
+                        .setBody("{\"message\": \"Too many requests\"}"));
 
         String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
 
         JsonBin jsonBin =
-                new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
-
-        jsonBin.createBin(new User(), "Test Bin", true, "collection-id");
-
-        var recordedRequest = mockWebServer.takeRequest();
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withMaxRetries(3)
+                        .withMaxRetryDelay(Duration.ofSeconds(1))
+                        .build();
+
+        long start = System.nanoTime();
+        JsonBinRateLimitException exception =
+                assertThrows(
+                        JsonBinRateLimitException.class,
+                        () -> jsonBin.readBin("bin-id", User.class));
 
-        assertEquals("POST", recordedRequest.getMethod());
-        assertEquals("Test Bin", recordedRequest.getHeader(JsonBin.HEADER_BIN_NAME));
-        assertEquals("true", recordedRequest.getHeader(JsonBin.HEADER_BIN_PRIVATE));
-        assertEquals("collection-id", recordedRequest.getHeader(JsonBin.HEADER_COLLECTION_ID));
+        assertEquals(Duration.ofHours(1), exception.getRetryAfter());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        assertEquals(1, mockWebServer.getRequestCount());
     }
 
     @Test
-    void shouldUpdateCollectionName() throws InterruptedException {
+    void shouldRecordOperationPhaseAndErrorMetrics() {
         String json =
                 """
                 {
-                  "record": "collection-id",
-                  "metadata": {
-                    "createdAt": "2024-01-01T10:00:00Z"
-                  }
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "bin-id" }
                 }
                 """;
 
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(json));
         mockWebServer.enqueue(
                 new MockResponse()
-                        .setResponseCode(200)
-                        .setBody(json)
-                        .addHeader("Content-Type", "application/json"));
+                        .setResponseCode(404)
+                        .setBody("{\"message\": \"Bin not found\"}"));
 
         String mockUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
 
         JsonBin jsonBin =
-                new JsonBinOkHttp.Builder().withMasterKey("dummy-key").withBaseUrl(mockUrl).build();
-
-        Bin<String> result = jsonBin.updateCollection("collection-id", "New Name");
-
-        assertEquals("collection-id", result.getRecord());
-
-        var recordedRequest = mockWebServer.takeRequest();
-        assertEquals("PUT", recordedRequest.getMethod());
-        assertEquals("/c/collection-id/meta/name", recordedRequest.getPath());
-        assertEquals("New Name", recordedRequest.getHeader(JsonBin.HEADER_COLLECTION_NAME));
+                new JsonBinOkHttp.Builder()
+                        .withMasterKey("dummy-key")
+                        .withBaseUrl(mockUrl)
+                        .withMetrics(new MicrometerJsonBinMetrics(registry))
+                        .build();
+
+        User user = jsonBin.readBin("bin-id", User.class).getRecord();
+        jsonBin.updateBin(user, "bin-id");
+        assertThrows(JsonBinException.class, () -> jsonBin.readBin("missing", User.class));
+
+        assertEquals(
+                1,
+                registry.get("jsonbin.operation")
+                        .tags("operation", "readBin", "status", "200", "outcome", "success")
+                        .timer()
+                        .count());
+        assertEquals(
+                1,
+                registry.get("jsonbin.errors")
+                        .tags("operation", "readBin", "status", "404")
+                        .counter()
+                        .count());
+        assertEquals(
+                3,
+                registry.get("jsonbin.phase").tag("phase", "time_to_first_byte").timers().stream()
+                        .mapToLong(timer -> timer.count())
+                        .sum());
+        assertTrue(
+                registry.get("jsonbin.bytes")
+                                .tags("operation", "updateBin", "direction", "sent")
+                                .summary()
+                                .totalAmount()
+                        > 0);
+        assertTrue(
+                registry.get("jsonbin.bytes")
+                                .tags("operation", "readBin", "direction", "received")
+                                .summary()
+                                .totalAmount()
+                        >= json.length());
+        assertEquals(
+                1,
+                registry.get("jsonbin.connections")
+                        .tags("operation", "readBin", "reused", "false")
+                        .counter()
+                        .count());
+        assertEquals(
+                1,
+                registry.get("jsonbin.connections")
+                        .tags("operation", "readBin", "reused", "true")
+                        .counter()
+                        .count());
+        assertEquals(
+                1,
+                registry.get("jsonbin.connections")
+                        .tags("operation", "updateBin", "reused", "true")
+                        .counter()
+                        .count());
     }
 }
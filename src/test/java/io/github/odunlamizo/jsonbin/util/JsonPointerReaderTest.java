@@ -0,0 +1,68 @@
+package io.github.odunlamizo.jsonbin.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.odunlamizo.jsonbin.model.User;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class JsonPointerReaderTest {
+
+    private static final ObjectReader USER_READER = JsonUtil.registry().reader(User.class);
+
+    @Test
+    void shouldBindOnlyTheTargetNode() throws IOException {
+        // The skipped nodes do not fit User, so binding any of them would fail
+        String json =
+                """
+                {
+                  "skipped": { "name": ["not", "a", "string"], "nested": [[{}], {"a": 1}] },
+                  "users": [
+                    { "name": { "first": "Not" }, "age": "old" },
+                    { "name": "John Doe", "age": 22 },
+                    { "name": "trailing", "age": "ignored" }
+                  ]
+                }
+                """;
+
+        User user =
+                JsonPointerReader.read(
+                        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                        JsonPointer.compile("/users/1"),
+                        USER_READER);
+
+        assertEquals("John Doe", user.getName());
+        assertEquals(22, user.getAge());
+    }
+
+    @Test
+    void shouldReturnNullWhenNothingMatches() throws IOException {
+        byte[] json =
+                """
+                { "users": [ { "name": "John Doe", "age": 22 } ], "owner": null }
+                """
+                        .getBytes(StandardCharsets.UTF_8);
+
+        assertNull(JsonPointerReader.read(json, JsonPointer.compile("/users/1"), USER_READER));
+        assertNull(JsonPointerReader.read(json, JsonPointer.compile("/admins/0"), USER_READER));
+        assertNull(JsonPointerReader.read(json, JsonPointer.compile("/users/name"), USER_READER));
+        assertNull(JsonPointerReader.read(json, JsonPointer.compile("/owner"), USER_READER));
+    }
+
+    @Test
+    void shouldReadWholeDocumentForEmptyPointer() throws IOException {
+        byte[] json =
+                """
+                { "name": "John Doe", "age": 22 }
+                """
+                        .getBytes(StandardCharsets.UTF_8);
+
+        User user = JsonPointerReader.read(json, JsonPointer.empty(), USER_READER);
+
+        assertEquals("John Doe", user.getName());
+    }
+}
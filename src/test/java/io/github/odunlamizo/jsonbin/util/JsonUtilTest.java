@@ -4,9 +4,16 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.odunlamizo.jsonbin.JsonBinException;
 import io.github.odunlamizo.jsonbin.model.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 class JsonUtilTest {
@@ -135,4 +142,133 @@ class JsonUtilTest {
 
         assertThrows(JsonProcessingException.class, () -> JsonUtil.toJson(nonSerializable));
     }
+
+    @Test
+    void shouldDeserializeFromInputStream() throws IOException {
+        String json =
+                """
+                { "users": [ { "name": "Morounfoluwa Mary", "age": 19 } ] }
+                """;
+
+        UserList userList =
+                JsonUtil.toValue(
+                        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                        new TypeReference<>() {});
+
+        assertEquals(1, userList.getUsers().size());
+        assertEquals("Morounfoluwa Mary", userList.getUsers().get(0).getName());
+    }
+
+    @Test
+    void shouldReuseRegisteredReadersAndWriters() {
+        JsonUtil.Registry registry = JsonUtil.registry();
+
+        assertSame(registry.binReader(User.class), registry.binReader(User.class));
+        assertSame(registry.writer(User.class), registry.writer(User.class));
+        assertSame(
+                registry.reader(new TypeReference<List<BinHandle>>() {}),
+                registry.reader(new TypeReference<List<BinHandle>>() {}));
+    }
+
+    @Test
+    void shouldReadBinThroughBlackbirdRegistry() throws IOException {
+        String json =
+                """
+                {
+                  "record": { "name": "Morounfoluwa Mary", "age": 19 },
+                  "metadata": { "id": "bin-id" }
+                }
+                """;
+
+        JsonUtil.Registry registry = JsonUtil.blackbirdRegistry();
+        registry.warmUp(User.class);
+        ObjectReader reader = registry.binReader(User.class);
+
+        Bin<User> bin = reader.readValue(json.getBytes(StandardCharsets.UTF_8));
+
+        assertNotSame(JsonUtil.registry(), registry);
+        assertEquals("Morounfoluwa Mary", bin.getRecord().getName());
+        assertEquals(19, bin.getRecord().getAge());
+        assertEquals(
+                "{\"name\":\"Morounfoluwa Mary\",\"age\":19}",
+                registry.writer(User.class).writeValueAsString(bin.getRecord()));
+    }
+
+    @Test
+    void shouldBindLazyRecordOnFirstAccessOnly() throws IOException {
+        String json =
+                """
+                {
+                  "record": { "name": "Morounfoluwa Mary", "age": "nineteen" },
+                  "metadata": { "id": "bin-id", "createdAt": "2024-01-31T06:27:31.021Z" }
+                }
+                """;
+
+        LazyBin<User> bin =
+                JsonUtil.registry()
+                        .lazyBinReader(User.class)
+                        .readValue(json.getBytes(StandardCharsets.UTF_8));
+
+        // The record does not fit User, which only matters once it is bound
+        assertEquals("bin-id", bin.getMetadata().getId());
+        assertThrows(JsonBinException.class, bin::getRecord);
+        assertEquals("nineteen", bin.getRecord(Map.class).get("age"));
+    }
+
+    @Test
+    void shouldCompareAndPrintLazyBinsWithoutBindingThem() throws IOException {
+        String json =
+                """
+                { "record": { "name": "Morounfoluwa Mary", "age": "nineteen" }, "metadata": { "id": "bin-id" } }
+                """;
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ObjectReader reader = JsonUtil.registry().lazyBinReader(User.class);
+
+        LazyBin<User> sliced = reader.readValue(bytes);
+        LazyBin<User> buffered = reader.readValue(new ByteArrayInputStream(bytes));
+
+        // Binding would fail, so none of these bind
+        assertEquals(sliced, buffered);
+        assertEquals(sliced.hashCode(), buffered.hashCode());
+        assertTrue(sliced.toString().contains("<unbound>"));
+        assertNotEquals(new Bin<User>(), sliced);
+
+        User user = new User();
+        buffered.setRecord(user);
+
+        assertNotEquals(sliced, buffered);
+    }
+
+    @Test
+    void shouldReadLazyBinsOutOfRecordOnlyBodies() throws IOException {
+        LazyBin<User> bin =
+                JsonUtil.registry()
+                        .lazyRecordReader(User.class)
+                        .readValue(
+                                "{ \"name\": \"Morounfoluwa Mary\", \"age\": 19 }"
+                                        .getBytes(StandardCharsets.UTF_8));
+        LazyBin<User> empty = JsonUtil.registry().lazyRecordReader(User.class).readValue("null");
+
+        assertNull(bin.getMetadata());
+        assertEquals(19, bin.getRecord().getAge());
+        assertNull(empty.getRecord());
+    }
+
+    @Test
+    void shouldMemoizeLazyRecordBufferedFromStream() throws IOException {
+        String json =
+                """
+                { "record": { "name": "Morounfoluwa Mary", "age": 19 }, "metadata": { "id": "bin-id" } }
+                """;
+
+        LazyBin<User> bin =
+                JsonUtil.registry()
+                        .lazyBinReader(User.class)
+                        .readValue(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertSame(bin.getRecord(), bin.getRecord());
+        assertEquals(19, bin.getRecord().getAge());
+        assertNotSame(bin.getRecord(), bin.getRecord(User.class));
+        assertEquals("Morounfoluwa Mary", bin.getRecord(JsonNode.class).get("name").asText());
+    }
 }